@@ -0,0 +1,96 @@
+package cn.maiaimei.commons.lang.utils;
+
+import cn.maiaimei.commons.lang.constants.NumberConstants;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.util.BufferRecycler;
+import com.fasterxml.jackson.core.util.RecyclerPool;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORGenerator;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import java.nio.ByteBuffer;
+
+/**
+ * The binary encodings of the JSON data model supported by {@link JsonBinaryCodec}. Both are
+ * written with a leading header, so that {@link JsonProfile#toObject(byte[], Class)} and
+ * {@link JsonUtils#toObject(ByteBuffer, Class)} tell them from JSON text and from each other.
+ */
+public enum BinaryJsonFormat {
+
+  /**
+   * Jackson's Smile format, starts with the {@code :)\n} header. Repeated property names and short
+   * string values are written once and then referenced, which suits arrays of similar objects
+   */
+  SMILE {
+    @Override
+    JsonFactory createFactory(RecyclerPool<BufferRecycler> recyclerPool) {
+      return SmileFactory.builder().recyclerPool(recyclerPool).build();
+    }
+
+    @Override
+    boolean hasHeader(byte[] data) {
+      return data.length >= 3 && data[0] == ':' && data[1] == ')' && data[2] == '\n';
+    }
+  },
+
+  /**
+   * CBOR (RFC 8949), starts with the self-describe tag {@code 0xD9D9F7}
+   */
+  CBOR {
+    @Override
+    JsonFactory createFactory(RecyclerPool<BufferRecycler> recyclerPool) {
+      return CBORFactory.builder().enable(CBORGenerator.Feature.WRITE_TYPE_HEADER)
+          .recyclerPool(recyclerPool).build();
+    }
+
+    @Override
+    boolean hasHeader(byte[] data) {
+      return data.length >= 3 && (data[0] & 0xFF) == 0xD9 && (data[1] & 0xFF) == 0xD9
+          && (data[2] & 0xFF) == 0xF7;
+    }
+  };
+
+  /**
+   * Create the factory of parsers and generators of this format.
+   *
+   * @param recyclerPool the pool of buffers
+   * @return the factory
+   */
+  abstract JsonFactory createFactory(RecyclerPool<BufferRecycler> recyclerPool);
+
+  /**
+   * Returns whether the data starts with the header of this format.
+   *
+   * @param data the data
+   * @return {@code true} if the data starts with the header
+   */
+  abstract boolean hasHeader(byte[] data);
+
+  /**
+   * Returns the format whose header the data starts with.
+   *
+   * @param data the data
+   * @return the format, {@code null} if none, such as for JSON text
+   */
+  static BinaryJsonFormat detect(byte[] data) {
+    if (SMILE.hasHeader(data)) {
+      return SMILE;
+    }
+    return CBOR.hasHeader(data) ? CBOR : null;
+  }
+
+  /**
+   * Returns the format whose header the bytes between the position and the limit of the buffer
+   * start with, the buffer itself is not modified.
+   *
+   * @param buffer the buffer
+   * @return the format, {@code null} if none, such as for JSON text
+   */
+  static BinaryJsonFormat detect(ByteBuffer buffer) {
+    final byte[] header = new byte[Math.min(buffer.remaining(), NumberConstants.THREE)];
+    for (int i = 0; i < header.length; i++) {
+      header[i] = buffer.get(buffer.position() + i);
+    }
+    return detect(header);
+  }
+
+}
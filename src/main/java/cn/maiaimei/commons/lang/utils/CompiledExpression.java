@@ -0,0 +1,763 @@
+package cn.maiaimei.commons.lang.utils;
+
+import cn.maiaimei.commons.lang.constants.NumberConstants;
+import cn.maiaimei.commons.lang.constants.StringConstants;
+import cn.maiaimei.commons.lang.utils.PlaceholderResolver.Placeholder;
+import com.google.common.collect.Maps;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import org.springframework.util.Assert;
+
+/**
+ * A value expression that has been parsed once into literal segments and placeholder nodes, see
+ * {@link ValueExpressionUtils#compile(String)}.
+ * <p>
+ * Instances are immutable and thread-safe, so a compiled expression can be shared and rendered
+ * concurrently. Each distinct placeholder is resolved once per render, a placeholder that occurs
+ * several times in the expression gets the same value at every occurrence.
+ */
+public final class CompiledExpression {
+
+  /**
+   * The key prefix: ${
+   */
+  private static final String KEY_PREFIX = "${";
+
+  /**
+   * The key suffix: }
+   */
+  private static final String KEY_SUFFIX = "}";
+
+  /**
+   * Marks a render context that reads the clock on every call
+   */
+  private static final long NO_TIME = Long.MIN_VALUE;
+
+  /**
+   * The expression string this expression was compiled from
+   */
+  private final String expressionString;
+
+  /**
+   * The literal segments and placeholder nodes, in order of appearance
+   */
+  private final Node[] nodes;
+
+  /**
+   * The number of placeholders that occur more than once and share a resolved value
+   */
+  private final int sharedSlots;
+
+  /**
+   * The number of serial numbers taken per render
+   */
+  private final int serialNumberCount;
+
+  /**
+   * The estimated length of a rendered string, used to pre-size the target buffer
+   */
+  private final int estimatedLength;
+
+  private CompiledExpression(String expressionString, Node[] nodes, int sharedSlots,
+      int serialNumberCount) {
+    this.expressionString = expressionString;
+    this.nodes = nodes;
+    this.sharedSlots = sharedSlots;
+    this.serialNumberCount = serialNumberCount;
+    int length = NumberConstants.ZERO;
+    for (Node node : nodes) {
+      length += node.estimatedLength();
+    }
+    this.estimatedLength = length;
+  }
+
+  /**
+   * Compile the given expression string, every ${key} placeholder is bound to its resolver once.
+   *
+   * @param expressionString the expression string to compile, must not be {@code null}
+   * @param resolvers        the placeholder resolvers keyed by placeholder name
+   * @return a compiled expression
+   */
+  static CompiledExpression compile(String expressionString,
+      Map<String, PlaceholderResolver> resolvers) {
+    Assert.notNull(expressionString, "expressionString must not be null");
+    final List<Node> nodes = new ArrayList<>();
+    final Map<String, Integer> occurrences = Maps.newHashMap();
+    final List<String> keys = new ArrayList<>();
+    int position = NumberConstants.ZERO;
+    int start = expressionString.indexOf(KEY_PREFIX);
+    while (start >= NumberConstants.ZERO) {
+      final int end = expressionString.indexOf(KEY_SUFFIX, start + KEY_PREFIX.length());
+      if (end < NumberConstants.ZERO) {
+        break;
+      }
+      // an unterminated ${ before the placeholder stays literal, such as ${a in ${a${b}
+      start = expressionString.lastIndexOf(KEY_PREFIX, end - KEY_PREFIX.length());
+      if (start > position) {
+        nodes.add(new LiteralNode(expressionString, position, start));
+      }
+      final String key = expressionString.substring(start, end + KEY_SUFFIX.length());
+      nodes.add(null);
+      keys.add(key);
+      occurrences.merge(key, NumberConstants.ONE, Integer::sum);
+      position = end + KEY_SUFFIX.length();
+      start = expressionString.indexOf(KEY_PREFIX, position);
+    }
+    if (position < expressionString.length()) {
+      nodes.add(new LiteralNode(expressionString, position, expressionString.length()));
+    }
+
+    final Map<String, Integer> slots = Maps.newHashMap();
+    int keyIndex = NumberConstants.ZERO;
+    int serialNumberCount = NumberConstants.ZERO;
+    for (int i = 0; i < nodes.size(); i++) {
+      if (nodes.get(i) == null) {
+        final String key = keys.get(keyIndex++);
+        final Placeholder placeholder = bind(key, resolvers);
+        int slot = -1;
+        if (occurrences.get(key) > NumberConstants.ONE) {
+          if (!slots.containsKey(key)) {
+            serialNumberCount += placeholder.serialNumberCount();
+          }
+          slot = slots.computeIfAbsent(key, k -> slots.size());
+        } else {
+          serialNumberCount += placeholder.serialNumberCount();
+        }
+        nodes.set(i, new PlaceholderNode(slot, placeholder));
+      }
+    }
+    return new CompiledExpression(expressionString, nodes.toArray(new Node[0]), slots.size(),
+        serialNumberCount);
+  }
+
+  /**
+   * Bind the given ${key} placeholder to its resolver, a placeholder without resolver is looked up
+   * from the params.
+   *
+   * @param key       the key including ${ and }
+   * @param resolvers the placeholder resolvers keyed by placeholder name
+   * @return the bound placeholder
+   */
+  private static Placeholder bind(String key, Map<String, PlaceholderResolver> resolvers) {
+    final String shortKey = key.substring(KEY_PREFIX.length(), key.length() - KEY_SUFFIX.length());
+    final String[] split = StringUtils.split(shortKey, StringConstants.MAPPING);
+    final String name = split == null ? shortKey : split[NumberConstants.ZERO];
+    final PlaceholderResolver resolver = resolvers.get(name);
+    if (resolver == null) {
+      return new ParamPlaceholder(key, shortKey);
+    }
+    return resolver.bind(split == null ? null : split[NumberConstants.ONE]);
+  }
+
+  /**
+   * Returns the expression string this expression was compiled from.
+   *
+   * @return the expression string
+   */
+  public String getExpressionString() {
+    return expressionString;
+  }
+
+  /**
+   * Replace placeholders with real values
+   *
+   * @return a new string without placeholder
+   */
+  public String render() {
+    return render(ValueExpressionUtils.ATOMIC_INTEGER);
+  }
+
+  /**
+   * Replace placeholders with real values
+   *
+   * @param atomicInteger the atomicInteger to use
+   * @return a new string without placeholder
+   */
+  public String render(AtomicInteger atomicInteger) {
+    return render(Collections.emptyMap(), atomicInteger);
+  }
+
+  /**
+   * Replace placeholders with real values
+   *
+   * @param params the params to use
+   * @return a new string without placeholder
+   */
+  public String render(Map<String, String> params) {
+    return render(params, ValueExpressionUtils.ATOMIC_INTEGER);
+  }
+
+  /**
+   * Replace placeholders with real values
+   *
+   * @param params        the params to use
+   * @param atomicInteger the atomicInteger to use
+   * @return a new string without placeholder
+   */
+  public String render(Map<String, String> params, AtomicInteger atomicInteger) {
+    return render(lookup(params), atomicInteger);
+  }
+
+  /**
+   * Replace placeholders with real values
+   *
+   * @param params        the params lookup to use
+   * @param atomicInteger the atomicInteger to use
+   * @return a new string without placeholder
+   */
+  public String render(ParamLookup params, AtomicInteger atomicInteger) {
+    return renderTo(new StringBuilder(estimatedLength), params, atomicInteger).toString();
+  }
+
+  /**
+   * Replace placeholders with real values and append the result to the given builder.
+   *
+   * @param builder the builder to append to
+   * @param params  the params to use
+   * @return the given builder
+   */
+  public StringBuilder renderTo(StringBuilder builder, Map<String, String> params) {
+    return renderTo(builder, params, ValueExpressionUtils.ATOMIC_INTEGER);
+  }
+
+  /**
+   * Replace placeholders with real values and append the result to the given builder.
+   *
+   * @param builder       the builder to append to
+   * @param params        the params to use
+   * @param atomicInteger the atomicInteger to use
+   * @return the given builder
+   */
+  public StringBuilder renderTo(StringBuilder builder, Map<String, String> params,
+      AtomicInteger atomicInteger) {
+    return renderTo(builder, lookup(params), atomicInteger);
+  }
+
+  /**
+   * Replace placeholders with real values and append the result to the given builder.
+   *
+   * @param builder       the builder to append to
+   * @param params        the params lookup to use
+   * @param atomicInteger the atomicInteger to use
+   * @return the given builder
+   */
+  public StringBuilder renderTo(StringBuilder builder, ParamLookup params,
+      AtomicInteger atomicInteger) {
+    Assert.notNull(builder, "builder must not be null");
+    builder.ensureCapacity(builder.length() + estimatedLength);
+    try {
+      render(builder, newContext(params, atomicInteger));
+    } catch (IOException e) {
+      // a StringBuilder never throws IOException
+      throw new UncheckedIOException(e);
+    }
+    return builder;
+  }
+
+  /**
+   * Replace placeholders with real values and append the result to the given appendable, literal
+   * segments and resolved values are appended directly without intermediate strings.
+   *
+   * @param appendable the appendable to append to, such as a {@link java.io.Writer}
+   * @param params     the params to use
+   * @throws UncheckedIOException if the appendable fails
+   */
+  public void renderTo(Appendable appendable, Map<String, String> params) {
+    renderTo(appendable, params, ValueExpressionUtils.ATOMIC_INTEGER);
+  }
+
+  /**
+   * Replace placeholders with real values and append the result to the given appendable, literal
+   * segments and resolved values are appended directly without intermediate strings.
+   *
+   * @param appendable    the appendable to append to, such as a {@link java.io.Writer}
+   * @param params        the params to use
+   * @param atomicInteger the atomicInteger to use
+   * @throws UncheckedIOException if the appendable fails
+   */
+  public void renderTo(Appendable appendable, Map<String, String> params,
+      AtomicInteger atomicInteger) {
+    renderTo(appendable, lookup(params), atomicInteger);
+  }
+
+  /**
+   * Replace placeholders with real values and append the result to the given appendable, literal
+   * segments and resolved values are appended directly without intermediate strings.
+   *
+   * @param appendable    the appendable to append to, such as a {@link java.io.Writer}
+   * @param params        the params lookup to use
+   * @param atomicInteger the atomicInteger to use
+   * @throws UncheckedIOException if the appendable fails
+   */
+  public void renderTo(Appendable appendable, ParamLookup params, AtomicInteger atomicInteger) {
+    Assert.notNull(appendable, "appendable must not be null");
+    try {
+      render(appendable, newContext(params, atomicInteger));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Replace placeholders with real values and put the UTF-8 encoded result into the given buffer,
+   * starting at its current position. Literal segments are encoded once at compile time.
+   *
+   * @param buffer the buffer to put to
+   * @param params the params to use
+   * @return the given buffer
+   * @throws java.nio.BufferOverflowException if the buffer has insufficient space remaining
+   */
+  public ByteBuffer renderTo(ByteBuffer buffer, Map<String, String> params) {
+    return renderTo(buffer, params, ValueExpressionUtils.ATOMIC_INTEGER);
+  }
+
+  /**
+   * Replace placeholders with real values and put the UTF-8 encoded result into the given buffer,
+   * starting at its current position. Literal segments are encoded once at compile time.
+   *
+   * @param buffer        the buffer to put to
+   * @param params        the params to use
+   * @param atomicInteger the atomicInteger to use
+   * @return the given buffer
+   * @throws java.nio.BufferOverflowException if the buffer has insufficient space remaining
+   */
+  public ByteBuffer renderTo(ByteBuffer buffer, Map<String, String> params,
+      AtomicInteger atomicInteger) {
+    return renderTo(buffer, lookup(params), atomicInteger);
+  }
+
+  /**
+   * Replace placeholders with real values and put the UTF-8 encoded result into the given buffer,
+   * starting at its current position. Literal segments are encoded once at compile time.
+   *
+   * @param buffer        the buffer to put to
+   * @param params        the params lookup to use
+   * @param atomicInteger the atomicInteger to use
+   * @return the given buffer
+   * @throws java.nio.BufferOverflowException if the buffer has insufficient space remaining
+   */
+  public ByteBuffer renderTo(ByteBuffer buffer, ParamLookup params, AtomicInteger atomicInteger) {
+    Assert.notNull(buffer, "buffer must not be null");
+    final RenderContext context = newContext(params, atomicInteger);
+    final Utf8Appendable appendable = new Utf8Appendable(buffer);
+    for (Node node : nodes) {
+      node.render(buffer, appendable, context);
+    }
+    appendable.finish();
+    return buffer;
+  }
+
+  /**
+   * Replace placeholders with real values once for every params of the batch. The clock is read
+   * once for the whole batch and the serial numbers of the batch are reserved as one contiguous
+   * block with a single {@link AtomicInteger#getAndAdd(int)}.
+   *
+   * @param params        the params of every item of the batch
+   * @param atomicInteger the atomicInteger to use
+   * @return the rendered strings, in the order of the params
+   */
+  public String[] renderBatch(List<? extends Map<String, String>> params,
+      AtomicInteger atomicInteger) {
+    Assert.notNull(params, "params must not be null");
+    final String[] values = new String[params.size()];
+    renderBatch(params, atomicInteger, new Consumer<String>() {
+      private int index;
+
+      @Override
+      public void accept(String value) {
+        values[index++] = value;
+      }
+    });
+    return values;
+  }
+
+  /**
+   * Replace placeholders with real values once for every params of the batch and hand each result
+   * to the consumer. The clock is read once for the whole batch and the serial numbers of the batch
+   * are reserved as one contiguous block with a single {@link AtomicInteger#getAndAdd(int)}.
+   *
+   * @param params        the params of every item of the batch
+   * @param atomicInteger the atomicInteger to use
+   * @param consumer      the consumer of the rendered strings, called in the order of the params
+   */
+  public void renderBatch(List<? extends Map<String, String>> params, AtomicInteger atomicInteger,
+      Consumer<String> consumer) {
+    Assert.notNull(params, "params must not be null");
+    Assert.notNull(atomicInteger, "atomicInteger must not be null");
+    Assert.notNull(consumer, "consumer must not be null");
+    final RenderContext context = new RenderContext(atomicInteger,
+        sharedSlots == NumberConstants.ZERO ? null : new String[sharedSlots],
+        DateTimeUtils.currentTimeMillis());
+    final long reserved = (long) serialNumberCount * params.size();
+    if (reserved > NumberConstants.ZERO && reserved <= Integer.MAX_VALUE) {
+      context.reserve(atomicInteger.getAndAdd((int) reserved), (int) reserved);
+    }
+    final StringBuilder builder = new StringBuilder(estimatedLength);
+    for (Map<String, String> item : params) {
+      context.reset(lookup(item));
+      builder.setLength(NumberConstants.ZERO);
+      try {
+        render(builder, context);
+      } catch (IOException e) {
+        // a StringBuilder never throws IOException
+        throw new UncheckedIOException(e);
+      }
+      consumer.accept(builder.toString());
+    }
+  }
+
+  @Override
+  public String toString() {
+    return expressionString;
+  }
+
+  /**
+   * Append every node to the appendable.
+   *
+   * @param appendable the appendable to append to
+   * @param context    the context of this render
+   * @throws IOException if the appendable fails
+   */
+  private void render(Appendable appendable, RenderContext context) throws IOException {
+    for (Node node : nodes) {
+      node.render(appendable, context);
+    }
+  }
+
+  /**
+   * Adapt the params map to a lookup without copying it.
+   *
+   * @param params the params to use
+   * @return the params lookup
+   */
+  private static ParamLookup lookup(Map<String, String> params) {
+    Assert.notNull(params, "params must not be null");
+    return params::get;
+  }
+
+  /**
+   * Create the context of a single render.
+   *
+   * @param params        the params lookup to use
+   * @param atomicInteger the atomicInteger to use
+   * @return a new render context
+   */
+  private RenderContext newContext(ParamLookup params, AtomicInteger atomicInteger) {
+    Assert.notNull(params, "params must not be null");
+    Assert.notNull(atomicInteger, "atomicInteger must not be null");
+    final RenderContext context = new RenderContext(atomicInteger,
+        sharedSlots == NumberConstants.ZERO ? null : new String[sharedSlots], NO_TIME);
+    context.reset(params);
+    return context;
+  }
+
+  /**
+   * The state of a single render, reset and reused for every item of a batch render.
+   */
+  private static final class RenderContext implements PlaceholderResolver.Context {
+
+    private final AtomicInteger atomicInteger;
+
+    /**
+     * The values of placeholders occurring more than once, {@code null} if there are none
+     */
+    private final String[] shared;
+
+    /**
+     * The epoch milliseconds read once for a batch, {@link #NO_TIME} to read the clock on every
+     * call
+     */
+    private final long currentTimeMillis;
+
+    private ParamLookup params;
+
+    /**
+     * The next serial number of the reserved block
+     */
+    private int serialNumber;
+
+    /**
+     * The number of serial numbers left in the reserved block
+     */
+    private int remaining;
+
+    RenderContext(AtomicInteger atomicInteger, String[] shared, long currentTimeMillis) {
+      this.atomicInteger = atomicInteger;
+      this.shared = shared;
+      this.currentTimeMillis = currentTimeMillis;
+    }
+
+    /**
+     * Reserve a block of serial numbers, taken before falling back to the atomicInteger.
+     *
+     * @param first the first serial number of the block
+     * @param count the number of serial numbers in the block
+     */
+    void reserve(int first, int count) {
+      this.serialNumber = first;
+      this.remaining = count;
+    }
+
+    /**
+     * Reset the context for the next item.
+     *
+     * @param params the params lookup of the next item
+     */
+    void reset(ParamLookup params) {
+      this.params = params;
+      if (shared != null) {
+        Arrays.fill(shared, null);
+      }
+    }
+
+    @Override
+    public String getParam(String name) {
+      return params.get(name);
+    }
+
+    @Override
+    public int nextSerialNumber() {
+      if (remaining > NumberConstants.ZERO) {
+        remaining--;
+        return serialNumber++;
+      }
+      return atomicInteger.getAndIncrement();
+    }
+
+    @Override
+    public long currentTimeMillis() {
+      return currentTimeMillis == NO_TIME ? DateTimeUtils.currentTimeMillis() : currentTimeMillis;
+    }
+  }
+
+  /**
+   * A segment of a compiled expression.
+   */
+  private abstract static class Node {
+
+    /**
+     * Append the value of this node to the appendable.
+     *
+     * @param appendable the appendable to append to
+     * @param context    the context of this render
+     * @throws IOException if the appendable fails
+     */
+    abstract void render(Appendable appendable, RenderContext context) throws IOException;
+
+    /**
+     * Put the UTF-8 encoded value of this node into the buffer.
+     *
+     * @param buffer     the buffer to put to
+     * @param appendable the UTF-8 encoding appendable over the buffer
+     * @param context    the context of this render
+     */
+    void render(ByteBuffer buffer, Utf8Appendable appendable, RenderContext context) {
+      try {
+        render(appendable, context);
+      } catch (IOException e) {
+        // a Utf8Appendable never throws IOException
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    /**
+     * Returns the estimated length of the value of this node.
+     *
+     * @return the estimated length
+     */
+    abstract int estimatedLength();
+  }
+
+  /**
+   * A literal segment, kept as a range of the expression string and as UTF-8 bytes.
+   */
+  private static final class LiteralNode extends Node {
+
+    private final String source;
+    private final int start;
+    private final int end;
+
+    /**
+     * The UTF-8 bytes of the segment, {@code null} if a surrogate at either end may pair with the
+     * value of a neighbouring placeholder
+     */
+    private final byte[] bytes;
+
+    LiteralNode(String source, int start, int end) {
+      this.source = source;
+      this.start = start;
+      this.end = end;
+      this.bytes = Character.isLowSurrogate(source.charAt(start))
+          || Character.isHighSurrogate(source.charAt(end - 1))
+          ? null : source.substring(start, end).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    void render(Appendable appendable, RenderContext context) throws IOException {
+      appendable.append(source, start, end);
+    }
+
+    @Override
+    void render(ByteBuffer buffer, Utf8Appendable appendable, RenderContext context) {
+      if (bytes == null) {
+        appendable.append(source, start, end);
+        return;
+      }
+      // the segment does not start with a low surrogate, a pending high surrogate stays unpaired
+      appendable.finish();
+      buffer.put(bytes);
+    }
+
+    @Override
+    int estimatedLength() {
+      return end - start;
+    }
+  }
+
+  /**
+   * A placeholder bound to its resolver at compile time.
+   */
+  private static final class PlaceholderNode extends Node {
+
+    /**
+     * The shared slot of the key, or -1 if the key occurs only once
+     */
+    private final int slot;
+
+    private final Placeholder placeholder;
+
+    PlaceholderNode(int slot, Placeholder placeholder) {
+      this.slot = slot;
+      this.placeholder = placeholder;
+    }
+
+    @Override
+    void render(Appendable appendable, RenderContext context) throws IOException {
+      if (slot < NumberConstants.ZERO) {
+        placeholder.resolve(appendable, context);
+        return;
+      }
+      String value = context.shared[slot];
+      if (value == null) {
+        final StringBuilder builder = new StringBuilder(placeholder.estimatedLength());
+        placeholder.resolve(builder, context);
+        value = builder.toString();
+        context.shared[slot] = value;
+      }
+      appendable.append(value);
+    }
+
+    @Override
+    int estimatedLength() {
+      return placeholder.estimatedLength();
+    }
+  }
+
+  /**
+   * A placeholder without resolver, looked up from the params and kept as is if absent.
+   */
+  private static final class ParamPlaceholder implements Placeholder {
+
+    /**
+     * The key including ${ and }
+     */
+    private final String key;
+
+    private final String name;
+
+    ParamPlaceholder(String key, String name) {
+      this.key = key;
+      this.name = name;
+    }
+
+    @Override
+    public void resolve(Appendable appendable, PlaceholderResolver.Context context)
+        throws IOException {
+      final String value = context.getParam(name);
+      appendable.append(value == null ? key : value);
+    }
+  }
+
+  /**
+   * An appendable that encodes chars as UTF-8 straight into a byte buffer.
+   */
+  private static final class Utf8Appendable implements Appendable {
+
+    private final ByteBuffer buffer;
+
+    /**
+     * A high surrogate waiting for its low surrogate
+     */
+    private char highSurrogate;
+
+    Utf8Appendable(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    /**
+     * Replace a pending unpaired high surrogate, if any, before raw bytes are put into the buffer
+     * or at the end of the render.
+     */
+    void finish() {
+      if (highSurrogate != 0) {
+        highSurrogate = 0;
+        buffer.put((byte) '?');
+      }
+    }
+
+    @Override
+    public Appendable append(CharSequence csq) {
+      return append(csq, NumberConstants.ZERO, csq.length());
+    }
+
+    @Override
+    public Appendable append(CharSequence csq, int start, int end) {
+      for (int i = start; i < end; i++) {
+        append(csq.charAt(i));
+      }
+      return this;
+    }
+
+    @Override
+    public Appendable append(char c) {
+      if (highSurrogate != 0) {
+        final char high = highSurrogate;
+        highSurrogate = 0;
+        if (Character.isLowSurrogate(c)) {
+          final int codePoint = Character.toCodePoint(high, c);
+          buffer.put((byte) (0xF0 | (codePoint >> 18)));
+          buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+          buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+          buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+          return this;
+        }
+        buffer.put((byte) '?');
+      }
+      if (c < 0x80) {
+        buffer.put((byte) c);
+      } else if (c < 0x800) {
+        buffer.put((byte) (0xC0 | (c >> 6)));
+        buffer.put((byte) (0x80 | (c & 0x3F)));
+      } else if (Character.isHighSurrogate(c)) {
+        highSurrogate = c;
+      } else if (Character.isLowSurrogate(c)) {
+        buffer.put((byte) '?');
+      } else {
+        buffer.put((byte) (0xE0 | (c >> 12)));
+        buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+        buffer.put((byte) (0x80 | (c & 0x3F)));
+      }
+      return this;
+    }
+  }
+
+}
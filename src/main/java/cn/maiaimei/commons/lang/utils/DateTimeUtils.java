@@ -1,17 +1,234 @@
 package cn.maiaimei.commons.lang.utils;
 
+import cn.maiaimei.commons.lang.constants.NumberConstants;
+import com.google.common.cache.CacheBuilder;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.springframework.util.Assert;
 
+/**
+ * Miscellaneous date and time utility methods.
+ * <p>
+ * Formatters are created once per pattern and kept in a registry that holds the
+ * {@value #MAXIMUM_PATTERNS} most recently used patterns. In coarse clock mode, see
+ * {@link #enableCoarseClock(long)}, a background ticker publishes the current date and time and
+ * the formatted value of up to {@value #MAXIMUM_PATTERNS} patterns in use, so that
+ * {@link #formatNow(String)} and {@link #now()} become a volatile read. The patterns of
+ * {@link cn.maiaimei.commons.lang.constants.DateTimeConstants} are formatted by an allocation-free
+ * {@link TimestampFormatter}.
+ */
 public final class DateTimeUtils {
 
+  /**
+   * The maximum number of patterns kept in each registry and refreshed by the coarse clock
+   */
+  public static final int MAXIMUM_PATTERNS = 256;
+
+  /**
+   * The registry of formatters, keyed by pattern
+   */
+  private static final Map<String, DateTimeFormatter> FORMATTERS = newRegistry();
+
+  /**
+   * The registry of timestamp formatters, keyed by pattern
+   */
+  private static final Map<String, TimestampFormatter> TIMESTAMP_FORMATTERS = newRegistry();
+
+  /**
+   * The coarse clock, {@code null} if coarse clock mode is disabled
+   */
+  private static volatile CoarseClock coarseClock;
+
+  /**
+   * Private constructors ensure that classes cannot be instantiated
+   */
   private DateTimeUtils() {
     throw new UnsupportedOperationException();
   }
 
+  /**
+   * Returns the formatter of the given pattern, created once and cached.
+   *
+   * @param pattern the pattern to use, must not be {@code null}
+   * @return the formatter
+   */
+  public static DateTimeFormatter getFormatter(String pattern) {
+    Assert.notNull(pattern, "pattern must not be null");
+    return FORMATTERS.computeIfAbsent(pattern, DateTimeFormatter::ofPattern);
+  }
+
+  /**
+   * Returns the timestamp formatter of the given pattern in the system default time-zone, created
+   * once and cached.
+   *
+   * @param pattern the pattern to use, must not be {@code null}
+   * @return the timestamp formatter
+   */
+  public static TimestampFormatter getTimestampFormatter(String pattern) {
+    Assert.notNull(pattern, "pattern must not be null");
+    return TIMESTAMP_FORMATTERS.computeIfAbsent(pattern, TimestampFormatter::ofPattern);
+  }
+
+  /**
+   * Returns the current epoch milliseconds, the last tick of the coarse clock if it is enabled.
+   *
+   * @return the milliseconds since 1970-01-01T00:00:00Z
+   */
+  public static long currentTimeMillis() {
+    final CoarseClock clock = coarseClock;
+    return clock == null ? System.currentTimeMillis() : clock.millis;
+  }
+
+  /**
+   * Returns the current date and time, the last tick of the coarse clock if it is enabled.
+   *
+   * @return the current date and time
+   */
+  public static LocalDateTime now() {
+    final CoarseClock clock = coarseClock;
+    return clock == null ? LocalDateTime.now() : clock.now;
+  }
+
+  /**
+   * Format the current date and time with the given pattern.
+   *
+   * @param pattern the pattern to use
+   * @return the formatted date and time
+   */
   public static String formatNow(String pattern) {
-    DateTimeFormatter formatter = DateTimeFormatter.ofPattern(pattern);
-    return formatter.format(LocalDateTime.now());
+    final CoarseClock clock = coarseClock;
+    if (clock != null) {
+      return clock.format(pattern);
+    }
+    return getTimestampFormatter(pattern).format(System.currentTimeMillis());
+  }
+
+  /**
+   * Enable the coarse clock mode, a daemon thread ticks at the given period and publishes the
+   * current date and time and the formatted value of every pattern formatted so far. Values lag
+   * the real clock by up to one period, so the period should not be finer than the patterns need.
+   * A running coarse clock is replaced.
+   *
+   * @param periodMillis the tick period in milliseconds, such as {@code 1} or {@code 1000}
+   */
+  public static synchronized void enableCoarseClock(long periodMillis) {
+    Assert.isTrue(periodMillis > NumberConstants.ZERO, "periodMillis must be positive");
+    disableCoarseClock();
+    coarseClock = new CoarseClock(periodMillis);
+  }
+
+  /**
+   * Disable the coarse clock mode and stop its ticker, does nothing if it is not enabled.
+   */
+  public static synchronized void disableCoarseClock() {
+    final CoarseClock clock = coarseClock;
+    if (clock != null) {
+      coarseClock = null;
+      clock.executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Returns whether the coarse clock mode is enabled.
+   *
+   * @return {@code true} if the coarse clock mode is enabled
+   */
+  public static boolean isCoarseClockEnabled() {
+    return coarseClock != null;
+  }
+
+  /**
+   * Create a registry that evicts the least recently used patterns beyond
+   * {@link #MAXIMUM_PATTERNS}.
+   *
+   * @param <V> the type of the formatters
+   * @return a new registry
+   */
+  private static <V> Map<String, V> newRegistry() {
+    return CacheBuilder.newBuilder()
+        .maximumSize(MAXIMUM_PATTERNS)
+        .<String, V>build()
+        .asMap();
+  }
+
+  /**
+   * A clock that is read and formatted by a background ticker.
+   */
+  private static final class CoarseClock {
+
+    private final ScheduledExecutorService executor;
+
+    /**
+     * The formatted values of the last tick, keyed by pattern
+     */
+    private final Map<String, TickValue> values = new ConcurrentHashMap<>();
+
+    private volatile long millis = System.currentTimeMillis();
+
+    private volatile LocalDateTime now = LocalDateTime.now();
+
+    CoarseClock(long periodMillis) {
+      executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "DateTimeUtils-coarse-clock");
+        thread.setDaemon(true);
+        return thread;
+      });
+      executor.scheduleAtFixedRate(this::tick, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns the formatted value of the last tick, a new pattern is formatted on the spot and
+     * refreshed by the following ticks, unless {@link #MAXIMUM_PATTERNS} patterns are refreshed
+     * already.
+     */
+    String format(String pattern) {
+      TickValue value = values.get(pattern);
+      if (value == null) {
+        if (values.size() >= MAXIMUM_PATTERNS) {
+          return getTimestampFormatter(pattern).format(millis);
+        }
+        value = values.computeIfAbsent(pattern,
+            p -> new TickValue(getTimestampFormatter(p), millis));
+      }
+      return value.value;
+    }
+
+    void tick() {
+      try {
+        final long current = System.currentTimeMillis();
+        for (TickValue value : values.values()) {
+          value.value = value.formatter.format(current);
+        }
+        now = LocalDateTime.ofInstant(Instant.ofEpochMilli(current), ZoneId.systemDefault());
+        millis = current;
+      } catch (RuntimeException e) {
+        // a periodic task that throws is never run again, report it and tick at the next period
+        final Thread thread = Thread.currentThread();
+        thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+      }
+    }
+  }
+
+  /**
+   * The formatted value of a pattern at the last tick.
+   */
+  private static final class TickValue {
+
+    private final TimestampFormatter formatter;
+
+    private volatile String value;
+
+    TickValue(TimestampFormatter formatter, long millis) {
+      this.formatter = formatter;
+      this.value = formatter.format(millis);
+    }
   }
 
 }
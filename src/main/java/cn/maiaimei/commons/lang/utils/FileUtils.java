@@ -1,20 +1,46 @@
 package cn.maiaimei.commons.lang.utils;
 
 import cn.maiaimei.commons.lang.constants.FileExtensionEnum;
+import cn.maiaimei.commons.lang.constants.NumberConstants;
 import cn.maiaimei.commons.lang.constants.StringConstants;
 import cn.maiaimei.commons.lang.exception.FileSystemOperationException;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Objects;
-import java.util.stream.Collectors;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 
@@ -23,6 +49,21 @@ import org.springframework.util.Assert;
  */
 public final class FileUtils {
 
+  /**
+   * The largest array size the JVMs allow
+   */
+  private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - NumberConstants.EIGHT;
+
+  /**
+   * The default segment size of {@link #mapReadOnlySegments(File)}, 1 GB
+   */
+  private static final int DEFAULT_MAP_SEGMENT_SIZE = 1 << 30;
+
+  /**
+   * The suffix of the temporary files of {@link #writeAtomically(File, ByteBuffer, boolean)}
+   */
+  private static final String TEMP_FILE_SUFFIX = ".tmp";
+
   /**
    * Private constructors ensure that classes cannot be instantiated
    */
@@ -89,6 +130,32 @@ public final class FileUtils {
     }
   }
 
+  /**
+   * Deletes a directory recursively on the pool, one task per directory and per batch of files.
+   * Symbolic links are deleted, not followed.
+   *
+   * @param directory directory to delete
+   * @param pool      the pool deleting the tree
+   */
+  public static void deleteDirectory(final File directory, ForkJoinPool pool) {
+    Assert.notNull(directory, "directory must not be null");
+    Assert.notNull(pool, "pool must not be null");
+    try {
+      final BasicFileAttributes attributes = FileWalker.readAttributes(directory.toPath());
+      if (attributes == null) {
+        return;
+      }
+      if (attributes.isSymbolicLink()) {
+        Files.deleteIfExists(directory.toPath());
+        return;
+      }
+      isTrue(attributes.isDirectory(), "'" + directory + "' is not a directory.");
+    } catch (IOException e) {
+      throw new FileSystemOperationException(e);
+    }
+    pool.invoke(new DeleteTask(directory.toPath(), true));
+  }
+
   /**
    * Cleans a directory without deleting it.
    *
@@ -114,6 +181,21 @@ public final class FileUtils {
     }
   }
 
+  /**
+   * Cleans a directory without deleting it, on the pool, one task per directory and per batch of
+   * files. Symbolic links are deleted, not followed.
+   *
+   * @param directory directory to clean
+   * @param pool      the pool cleaning the tree
+   */
+  public static void cleanDirectory(final File directory, ForkJoinPool pool) {
+    Assert.notNull(directory, "directory must not be null");
+    Assert.notNull(pool, "pool must not be null");
+    isTrue(Files.isDirectory(directory.toPath(), LinkOption.NOFOLLOW_LINKS),
+        "'" + directory + "' is not a directory.");
+    pool.invoke(new DeleteTask(directory.toPath(), false));
+  }
+
   /**
    * Construct a file from the set of name elements.
    *
@@ -180,25 +262,34 @@ public final class FileUtils {
   }
 
   /**
-   * Convert the specified file to a byte array.
+   * Convert the specified file to a byte array, read with positional {@link FileChannel} reads
+   * into an array of the exact file size.
    *
    * @param file the file to get byte array, must not be {@code null}
    * @return a byte array
    */
   public static byte[] getBytes(File file) {
     Assert.notNull(file, "file must not be null");
-    byte[] bytes;
-    try (FileInputStream fis = new FileInputStream(file)) {
-      bytes = new byte[fis.available()];
-      fis.read(bytes);
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      final long size = channel.size();
+      isTrue(size <= MAX_ARRAY_SIZE, "File '" + file + "' is too large to read into an array.");
+      final byte[] bytes = new byte[(int) size];
+      final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+      while (buffer.hasRemaining()) {
+        if (channel.read(buffer, buffer.position()) < NumberConstants.ZERO) {
+          // the file has been truncated meanwhile
+          return Arrays.copyOf(bytes, buffer.position());
+        }
+      }
+      return bytes;
     } catch (IOException e) {
       throw new FileSystemOperationException(e);
     }
-    return bytes;
   }
 
   /**
-   * Convert the specified file to a byte array.
+   * Convert the specified file to a byte array, read with positional {@link FileChannel} reads
+   * into an array of the exact file size.
    *
    * @param name the name to get byte array, must not be {@code null}
    * @return a byte array
@@ -206,14 +297,87 @@ public final class FileUtils {
   public static byte[] getBytes(String name) {
     Assert.hasText(name,
         "name must not be null and must contain at least one non-whitespace character");
-    byte[] bytes;
-    try (FileInputStream fis = new FileInputStream(name)) {
-      bytes = new byte[fis.available()];
-      fis.read(bytes);
+    return getBytes(getFile(name));
+  }
+
+  /**
+   * Map a file of up to 2 GB into memory read-only, its contents stay off the heap and are paged
+   * in on access. The mapping stays valid after the method returns, release it with
+   * {@link #unmap(ByteBuffer)} or let the buffer be garbage collected.
+   *
+   * @param file the file to map, must not be {@code null}
+   * @return the mapped buffer
+   */
+  public static MappedByteBuffer mapReadOnly(File file) {
+    Assert.notNull(file, "file must not be null");
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      final long size = channel.size();
+      isTrue(size <= Integer.MAX_VALUE,
+          "File '" + file + "' is larger than 2 GB, use mapReadOnlySegments.");
+      return channel.map(MapMode.READ_ONLY, NumberConstants.ZERO, size);
+    } catch (IOException e) {
+      throw new FileSystemOperationException(e);
+    }
+  }
+
+  /**
+   * Map a file of any size into memory read-only, as consecutive segments of 1 GB.
+   *
+   * @param file the file to map, must not be {@code null}
+   * @return the mapped segments, in file order
+   * @see #mapReadOnly(File)
+   */
+  public static List<MappedByteBuffer> mapReadOnlySegments(File file) {
+    return mapReadOnlySegments(file, DEFAULT_MAP_SEGMENT_SIZE);
+  }
+
+  /**
+   * Map a file of any size into memory read-only, as consecutive segments of the given size. The
+   * last segment may be smaller.
+   *
+   * @param file        the file to map, must not be {@code null}
+   * @param segmentSize the number of bytes of a segment
+   * @return the mapped segments, in file order
+   * @see #mapReadOnly(File)
+   */
+  public static List<MappedByteBuffer> mapReadOnlySegments(File file, int segmentSize) {
+    Assert.notNull(file, "file must not be null");
+    Assert.isTrue(segmentSize > NumberConstants.ZERO, "segmentSize must be positive");
+    final List<MappedByteBuffer> segments = new ArrayList<>();
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      final long size = channel.size();
+      for (long position = NumberConstants.ZERO; position < size; position += segmentSize) {
+        segments.add(channel.map(MapMode.READ_ONLY, position,
+            Math.min(segmentSize, size - position)));
+      }
+      return segments;
     } catch (IOException e) {
+      segments.forEach(FileUtils::unmap);
       throw new FileSystemOperationException(e);
     }
-    return bytes;
+  }
+
+  /**
+   * Release the memory of a direct or mapped buffer now instead of when it is garbage collected,
+   * so that a mapped file can be deleted or remapped on every platform. The buffer, and every
+   * slice or duplicate of it, must not be used afterwards, accessing it may crash the JVM.
+   *
+   * @param buffer the buffer to release, must not be a slice or duplicate
+   * @return {@code true} if the buffer has been released, {@code false} if it is not direct or the
+   *     running JVM does not allow it
+   */
+  public static boolean unmap(ByteBuffer buffer) {
+    Assert.notNull(buffer, "buffer must not be null");
+    if (!buffer.isDirect() || BufferCleaner.CLEANER == null) {
+      return false;
+    }
+    try {
+      BufferCleaner.CLEANER.accept(buffer);
+      return true;
+    } catch (IllegalArgumentException e) {
+      // a slice or duplicate, which does not own its memory
+      return false;
+    }
   }
 
   /**
@@ -255,14 +419,30 @@ public final class FileUtils {
   public static List<File> listFiles(String path) {
     final File file = getFile(path);
     if (file.exists() && file.isDirectory()) {
-      final File[] files = file.listFiles();
-      if (Objects.nonNull(files)) {
-        return Arrays.stream(files).collect(Collectors.toList());
+      final List<File> files = new ArrayList<>();
+      try (DirectoryStream<Path> stream = Files.newDirectoryStream(file.toPath())) {
+        stream.forEach(entry -> files.add(entry.toFile()));
+      } catch (IOException | DirectoryIteratorException e) {
+        throw new FileSystemOperationException(e);
       }
+      return files;
     }
     return Collections.emptyList();
   }
 
+  /**
+   * Walk a directory tree lazily and return its files, see {@link FileWalker#walk(Path)}. The
+   * directories being listed are closed when the stream is closed.
+   *
+   * @param directory  the directory to walk, must not be {@code null}
+   * @param extensions the extensions one of which the files must have, any extension if empty
+   * @return the files of the tree with their attributes
+   */
+  public static Stream<FileWalker.Entry> walk(File directory, FileExtensionEnum... extensions) {
+    Assert.notNull(directory, "directory must not be null");
+    return FileWalker.builder().extensions(extensions).build().walk(directory.toPath());
+  }
+
   /**
    * Reads the contents of a classpath file into a string using the {@code StandardCharsets.UTF_8}.
    * <p>
@@ -310,6 +490,93 @@ public final class FileUtils {
     }
   }
 
+  /**
+   * Read the lines of a file lazily using the {@code StandardCharsets.UTF_8}, see
+   * {@link #lines(File, Charset)}.
+   *
+   * @param file the file to read, must not be {@code null}
+   * @return the lines of the file
+   */
+  public static Stream<String> lines(File file) {
+    return lines(file, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Read the lines of a file lazily, decoding the file incrementally into a reusable buffer instead
+   * of loading it into one String, memory stays constant whatever the size of the file. Lines end
+   * with {@code \n}, {@code \r} or {@code \r\n}.
+   * <p>
+   * The file is closed when the stream is closed, use it in a try-with-resources statement.
+   *
+   * @param file    the file to read, must not be {@code null}
+   * @param charset the charset of the file, must not be {@code null}
+   * @return the lines of the file
+   */
+  public static Stream<String> lines(File file, Charset charset) {
+    final LineReader reader = openLineReader(file, charset);
+    final Iterator<String> iterator = new Iterator<String>() {
+      private String next;
+
+      @Override
+      public boolean hasNext() {
+        if (next == null) {
+          final CharSequence line = readLine(reader);
+          next = line == null ? null : line.toString();
+        }
+        return next != null;
+      }
+
+      @Override
+      public String next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        final String line = next;
+        next = null;
+        return line;
+      }
+    };
+    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+            Spliterator.ORDERED | Spliterator.NONNULL), false)
+        .onClose(() -> close(reader));
+  }
+
+  /**
+   * Perform the action for each line of a file using the {@code StandardCharsets.UTF_8}, see
+   * {@link #forEachLine(File, Charset, Consumer)}.
+   *
+   * @param file   the file to read, must not be {@code null}
+   * @param action the action to perform for each line, must not be {@code null}
+   */
+  public static void forEachLine(File file, Consumer<? super CharSequence> action) {
+    forEachLine(file, StandardCharsets.UTF_8, action);
+  }
+
+  /**
+   * Perform the action for each line of a file, decoding the file incrementally into a reusable
+   * buffer. Each line is handed to the action as a view of that buffer without being copied, the
+   * view is only valid during the call, use {@code toString()} to keep the line. Lines end with
+   * {@code \n}, {@code \r} or {@code \r\n}.
+   * <p>
+   * The file is always closed.
+   *
+   * @param file    the file to read, must not be {@code null}
+   * @param charset the charset of the file, must not be {@code null}
+   * @param action  the action to perform for each line, must not be {@code null}
+   */
+  public static void forEachLine(File file, Charset charset,
+      Consumer<? super CharSequence> action) {
+    Assert.notNull(action, "action must not be null");
+    try (LineReader reader = openLineReader(file, charset)) {
+      CharSequence line;
+      while ((line = reader.readLine()) != null) {
+        action.accept(line);
+      }
+    } catch (IOException e) {
+      throw new FileSystemOperationException(e);
+    }
+  }
+
   /**
    * Writes a String to a file creating the file if it does not exist.
    *
@@ -324,9 +591,109 @@ public final class FileUtils {
     Assert.hasText(data,
         "data must not be null and must contain at least one non-whitespace character");
     Assert.notNull(charset, "charset must not be null");
-    final File file = getOrCreateFile(name);
     try {
-      org.apache.commons.io.FileUtils.writeStringToFile(file, data, charset);
+      // the file and its parent directories are created on open
+      org.apache.commons.io.FileUtils.writeStringToFile(getFile(name), data, charset);
+    } catch (IOException e) {
+      throw new FileSystemOperationException(e);
+    }
+  }
+
+  /**
+   * Writes a String to a file atomically, see {@link #writeAtomically(File, ByteBuffer, boolean)}.
+   *
+   * @param name    the name to write
+   * @param data    the content to write to the file
+   * @param charset the charset to use, must not be {@code null}
+   * @param force   whether the content is forced to the storage device before the file is replaced
+   */
+  public static void writeStringToFileAtomically(final String name, final String data,
+      final Charset charset, boolean force) {
+    Assert.hasText(name,
+        "name must not be null and must contain at least one non-whitespace character");
+    Assert.notNull(data, "data must not be null");
+    Assert.notNull(charset, "charset must not be null");
+    writeAtomically(getFile(name), ByteBuffer.wrap(data.getBytes(charset)), force);
+  }
+
+  /**
+   * Writes a byte array to a file atomically, see
+   * {@link #writeAtomically(File, ByteBuffer, boolean)}.
+   *
+   * @param file  the file to write, must not be {@code null}
+   * @param data  the content to write to the file, must not be {@code null}
+   * @param force whether the content is forced to the storage device before the file is replaced
+   */
+  public static void writeAtomically(File file, byte[] data, boolean force) {
+    Assert.notNull(data, "data must not be null");
+    writeAtomically(file, ByteBuffer.wrap(data), force);
+  }
+
+  /**
+   * Writes the bytes between the position and the limit of a buffer to a file atomically: the
+   * bytes are written to a temporary file in the same directory, which then replaces the file with
+   * an atomic move, so readers see either the previous content or the new one, never a partial
+   * file. The position of the buffer is not changed.
+   * <p>
+   * With {@code force}, the temporary file is forced to the storage device before the move and the
+   * directory after it, so the new content survives a crash once the method returns. The parent
+   * directories are created if needed.
+   *
+   * @param file  the file to write, must not be {@code null}
+   * @param data  the content to write to the file, must not be {@code null}
+   * @param force whether the content is forced to the storage device before the file is replaced
+   */
+  public static void writeAtomically(File file, ByteBuffer data, boolean force) {
+    Assert.notNull(file, "file must not be null");
+    Assert.notNull(data, "data must not be null");
+    final Path target = file.toPath().toAbsolutePath();
+    final Path directory = target.getParent();
+    final Path temp = directory.resolve(StringConstants.DOT + target.getFileName()
+        + StringConstants.DOT + Long.toHexString(ThreadLocalRandom.current().nextLong())
+        + TEMP_FILE_SUFFIX);
+    try {
+      Files.createDirectories(directory);
+      // a new file rather than Files.createTempFile keeps the default permissions
+      try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE_NEW,
+          StandardOpenOption.WRITE)) {
+        final ByteBuffer buffer = data.duplicate();
+        while (buffer.hasRemaining()) {
+          channel.write(buffer);
+        }
+        if (force) {
+          channel.force(false);
+        }
+      }
+      Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+      if (force) {
+        forceDirectory(directory);
+      }
+    } catch (IOException e) {
+      try {
+        Files.deleteIfExists(temp);
+      } catch (IOException suppressed) {
+        e.addSuppressed(suppressed);
+      }
+      throw new FileSystemOperationException(e);
+    }
+  }
+
+  /**
+   * Open a writer appending to a file that batches concurrent writes and forces each batch to the
+   * storage device at once, see {@link GroupCommitWriter}. The file and its parent directories are
+   * created if needed.
+   *
+   * @param file  the file to append to, must not be {@code null}
+   * @param force whether each batch is forced to the storage device before its writes return
+   * @return the writer, to be closed
+   */
+  public static GroupCommitWriter newGroupCommitWriter(File file, boolean force) {
+    Assert.notNull(file, "file must not be null");
+    final Path path = file.toPath().toAbsolutePath();
+    try {
+      Files.createDirectories(path.getParent());
+      return new GroupCommitWriter(FileChannel.open(path, StandardOpenOption.CREATE,
+          StandardOpenOption.WRITE, StandardOpenOption.APPEND), force);
     } catch (IOException e) {
       throw new FileSystemOperationException(e);
     }
@@ -408,4 +775,168 @@ public final class FileUtils {
     }
   }
 
+  /**
+   * Force the entries of a directory, such as a renamed file, to the storage device. Not all
+   * platforms can open a directory, there it is left to the file system.
+   */
+  private static void forceDirectory(Path directory) {
+    try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+      channel.force(true);
+    } catch (IOException e) {
+      // directories cannot be opened on Windows
+    }
+  }
+
+  private static LineReader openLineReader(File file, Charset charset) {
+    Assert.notNull(file, "file must not be null");
+    Assert.notNull(charset, "charset must not be null");
+    try {
+      final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+      return new LineReader(channel, charset, LineReader.DEFAULT_BUFFER_SIZE);
+    } catch (IOException e) {
+      throw new FileSystemOperationException(e);
+    }
+  }
+
+  private static CharSequence readLine(LineReader reader) {
+    try {
+      return reader.readLine();
+    } catch (IOException e) {
+      throw new FileSystemOperationException(e);
+    }
+  }
+
+  private static void close(LineReader reader) {
+    try {
+      reader.close();
+    } catch (IOException e) {
+      throw new FileSystemOperationException(e);
+    }
+  }
+
+  /**
+   * Deletes the entries of a directory, forking a task per subdirectory and per batch of files,
+   * then the directory itself once they are done.
+   */
+  private static final class DeleteTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient Path directory;
+    private final boolean deleteDirectory;
+
+    DeleteTask(Path directory, boolean deleteDirectory) {
+      this.directory = directory;
+      this.deleteDirectory = deleteDirectory;
+    }
+
+    @Override
+    protected void compute() {
+      final List<ForkJoinTask<?>> tasks = new ArrayList<>();
+      List<Path> batch = new ArrayList<>();
+      RuntimeException failure = null;
+      try {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+          for (Path path : stream) {
+            final BasicFileAttributes attributes = FileWalker.readAttributes(path);
+            if (attributes == null) {
+              continue;
+            }
+            if (attributes.isDirectory()) {
+              tasks.add(new DeleteTask(path, true).fork());
+              continue;
+            }
+            batch.add(path);
+            if (batch.size() == FileWalker.BATCH_SIZE) {
+              final List<Path> paths = batch;
+              tasks.add(ForkJoinTask.adapt(() -> deleteAll(paths)).fork());
+              batch = new ArrayList<>();
+            }
+          }
+          deleteAll(batch);
+        } catch (DirectoryIteratorException e) {
+          throw e.getCause();
+        }
+      } catch (NoSuchFileException e) {
+        // removed meanwhile
+        FileWalker.joinAll(tasks, null);
+        return;
+      } catch (IOException e) {
+        failure = new FileSystemOperationException(e);
+      } catch (RuntimeException e) {
+        failure = e;
+      }
+      // a failed delete must not go on removing files once the caller sees the failure
+      FileWalker.joinAll(tasks, failure);
+      if (deleteDirectory) {
+        try {
+          Files.deleteIfExists(directory);
+        } catch (IOException e) {
+          throw new FileSystemOperationException(e);
+        }
+      }
+    }
+
+    private static void deleteAll(List<Path> paths) {
+      try {
+        for (Path path : paths) {
+          Files.deleteIfExists(path);
+        }
+      } catch (IOException e) {
+        throw new FileSystemOperationException(e);
+      }
+    }
+  }
+
+  /**
+   * Releases direct buffers through {@code sun.misc.Unsafe#invokeCleaner} on Java 9 and later, or
+   * through {@code sun.nio.ch.DirectBuffer#cleaner} on Java 8, resolved once by reflection.
+   */
+  private static final class BufferCleaner {
+
+    /**
+     * The cleaner, {@code null} if the running JVM does not allow it
+     */
+    private static final Consumer<ByteBuffer> CLEANER = createCleaner();
+
+    private static Consumer<ByteBuffer> createCleaner() {
+      try {
+        final Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+        final Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+        final Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+        theUnsafe.setAccessible(true);
+        final Object unsafe = theUnsafe.get(null);
+        return buffer -> invoke(invokeCleaner, unsafe, buffer);
+      } catch (ReflectiveOperationException | RuntimeException e) {
+        // Java 8
+      }
+      try {
+        final Method cleaner = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+        final Method clean = Class.forName("sun.misc.Cleaner").getMethod("clean");
+        return buffer -> {
+          final Object bufferCleaner = invoke(cleaner, buffer);
+          if (bufferCleaner == null) {
+            throw new IllegalArgumentException("duplicate or slice");
+          }
+          invoke(clean, bufferCleaner);
+        };
+      } catch (ReflectiveOperationException | RuntimeException e) {
+        return null;
+      }
+    }
+
+    private static Object invoke(Method method, Object target, Object... args) {
+      try {
+        return method.invoke(target, args);
+      } catch (InvocationTargetException e) {
+        if (e.getCause() instanceof RuntimeException) {
+          throw (RuntimeException) e.getCause();
+        }
+        throw new IllegalStateException(e.getCause());
+      } catch (IllegalAccessException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+  }
+
 }
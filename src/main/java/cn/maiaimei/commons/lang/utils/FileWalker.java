@@ -0,0 +1,474 @@
+package cn.maiaimei.commons.lang.utils;
+
+import cn.maiaimei.commons.lang.constants.FileExtensionEnum;
+import cn.maiaimei.commons.lang.constants.NumberConstants;
+import cn.maiaimei.commons.lang.exception.FileSystemOperationException;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import org.springframework.util.Assert;
+
+/**
+ * Walks a directory tree with {@link DirectoryStream}s, reading the {@link BasicFileAttributes} of
+ * each entry once and handing them over with the entry, so callers need not read them again. Only
+ * the directories being listed are held open, the entries are never collected into arrays or
+ * lists, so memory stays small whatever the size of the tree.
+ * <p>
+ * {@link #walk(Path)} returns the entries lazily in depth-first order,
+ * {@link #forEachParallel(Path, Consumer)} lists the directories and runs the action on the threads
+ * of a {@link ForkJoinPool}.
+ * Symbolic links are reported but not followed, entries removed during the walk are skipped.
+ * Instances are immutable and thread-safe.
+ */
+public final class FileWalker {
+
+  /**
+   * The number of entries handed to a task at a time by {@link #forEachParallel(Path, Consumer)}
+   */
+  static final int BATCH_SIZE = 1024;
+
+  private final int maxDepth;
+  private final PathMatcher matcher;
+  private final String[] suffixes;
+  private final boolean includeDirectories;
+  private final ForkJoinPool pool;
+
+  private FileWalker(Builder builder) {
+    this.maxDepth = builder.maxDepth;
+    this.matcher = builder.glob == null ? null
+        : FileSystems.getDefault().getPathMatcher("glob:" + builder.glob);
+    this.suffixes = builder.extensions.stream()
+        .map(FileExtensionEnum::getFileSuffix)
+        .toArray(String[]::new);
+    this.includeDirectories = builder.includeDirectories;
+    this.pool = builder.pool;
+  }
+
+  /**
+   * Returns an instance of {@link Builder}
+   *
+   * @return an instance of {@link Builder}
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Walk the tree lazily in depth-first order, a directory before its entries. The directories
+   * being listed are closed when the stream is closed, use it in a try-with-resources statement.
+   *
+   * @param start the directory to walk, not itself included, must not be {@code null}
+   * @return the matching entries
+   */
+  public Stream<Entry> walk(Path start) {
+    Assert.notNull(start, "start must not be null");
+    final WalkIterator iterator = new WalkIterator(start);
+    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+            Spliterator.NONNULL | Spliterator.DISTINCT), false)
+        .onClose(iterator::close);
+  }
+
+  /**
+   * Walk the tree on the pool, one task per directory, and perform the action for each matching
+   * entry, on several threads at once and in no particular order. The action must be thread-safe.
+   *
+   * @param start  the directory to walk, not itself included, must not be {@code null}
+   * @param action the action to perform for each entry, must not be {@code null}
+   */
+  public void forEachParallel(Path start, Consumer<? super Entry> action) {
+    Assert.notNull(start, "start must not be null");
+    Assert.notNull(action, "action must not be null");
+    pool.invoke(new WalkTask(start, NumberConstants.ZERO, action));
+  }
+
+  private boolean matches(Path path, BasicFileAttributes attributes) {
+    if (attributes.isDirectory() && !includeDirectories) {
+      return false;
+    }
+    final Path name = path.getFileName();
+    if (matcher != null && !matcher.matches(name)) {
+      return false;
+    }
+    if (suffixes.length == NumberConstants.ZERO) {
+      return true;
+    }
+    final String fileName = name.toString().toLowerCase(Locale.ROOT);
+    return Arrays.stream(suffixes).anyMatch(fileName::endsWith);
+  }
+
+  /**
+   * Read the attributes of the path without following links.
+   *
+   * @return the attributes, {@code null} if the path no longer exists
+   */
+  static BasicFileAttributes readAttributes(Path path) throws IOException {
+    try {
+      return Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+    } catch (NoSuchFileException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Wait for the forked tasks, even after a failure, so that no task is still running once the
+   * caller sees it. The first failure is thrown with the failures of the other tasks suppressed.
+   *
+   * @param tasks   the forked tasks
+   * @param failure the failure of the forking task, {@code null} if none
+   */
+  static void joinAll(List<ForkJoinTask<?>> tasks, RuntimeException failure) {
+    Throwable first = failure;
+    for (ForkJoinTask<?> task : tasks) {
+      task.quietlyJoin();
+      final Throwable e = task.getException();
+      if (e == null) {
+        continue;
+      }
+      if (first == null) {
+        first = e;
+      } else {
+        first.addSuppressed(e);
+      }
+    }
+    if (first instanceof RuntimeException) {
+      throw (RuntimeException) first;
+    }
+    if (first instanceof Error) {
+      throw (Error) first;
+    }
+  }
+
+  /**
+   * A file or directory found by a walk.
+   */
+  public static final class Entry {
+
+    private final Path path;
+    private final BasicFileAttributes attributes;
+    private final int depth;
+
+    Entry(Path path, BasicFileAttributes attributes, int depth) {
+      this.path = path;
+      this.attributes = attributes;
+      this.depth = depth;
+    }
+
+    /**
+     * Returns the path of the entry, resolved against the start of the walk.
+     *
+     * @return the path
+     */
+    public Path getPath() {
+      return path;
+    }
+
+    /**
+     * Returns the path of the entry as a file.
+     *
+     * @return the file
+     */
+    public File getFile() {
+      return path.toFile();
+    }
+
+    /**
+     * Returns the attributes of the entry, read during the walk.
+     *
+     * @return the attributes
+     */
+    public BasicFileAttributes getAttributes() {
+      return attributes;
+    }
+
+    /**
+     * Returns the depth of the entry, 1 for the entries of the start directory.
+     *
+     * @return the depth
+     */
+    public int getDepth() {
+      return depth;
+    }
+
+    @Override
+    public String toString() {
+      return path.toString();
+    }
+  }
+
+  /**
+   * Iterates a tree depth-first with a stack of open directory streams.
+   */
+  private final class WalkIterator implements Iterator<Entry>, Closeable {
+
+    private final Deque<Level> levels = new ArrayDeque<>();
+
+    private Entry next;
+
+    WalkIterator(Path start) {
+      push(start, NumberConstants.ZERO);
+    }
+
+    @Override
+    public boolean hasNext() {
+      try {
+        while (next == null && !levels.isEmpty()) {
+          final Level level = levels.peek();
+          if (!level.iterator.hasNext()) {
+            levels.pop().stream.close();
+            continue;
+          }
+          final Path path = level.iterator.next();
+          final BasicFileAttributes attributes = readAttributes(path);
+          if (attributes == null) {
+            continue;
+          }
+          final int depth = level.depth + NumberConstants.ONE;
+          if (attributes.isDirectory() && depth < maxDepth) {
+            push(path, depth);
+          }
+          if (matches(path, attributes)) {
+            next = new Entry(path, attributes, depth);
+          }
+        }
+        return next != null;
+      } catch (IOException e) {
+        close();
+        throw new FileSystemOperationException(e);
+      } catch (DirectoryIteratorException e) {
+        close();
+        throw new FileSystemOperationException(e.getCause());
+      }
+    }
+
+    @Override
+    public Entry next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      final Entry entry = next;
+      next = null;
+      return entry;
+    }
+
+    private void push(Path directory, int depth) {
+      try {
+        levels.push(new Level(Files.newDirectoryStream(directory), depth));
+      } catch (NoSuchFileException e) {
+        if (depth == NumberConstants.ZERO) {
+          close();
+          throw new FileSystemOperationException(e);
+        }
+        // removed during the walk
+      } catch (IOException e) {
+        close();
+        throw new FileSystemOperationException(e);
+      }
+    }
+
+    @Override
+    public void close() {
+      next = null;
+      IOException failure = null;
+      while (!levels.isEmpty()) {
+        try {
+          levels.pop().stream.close();
+        } catch (IOException e) {
+          failure = e;
+        }
+      }
+      if (failure != null) {
+        throw new FileSystemOperationException(failure);
+      }
+    }
+  }
+
+  /**
+   * A directory being listed.
+   */
+  private static final class Level {
+
+    private final DirectoryStream<Path> stream;
+    private final Iterator<Path> iterator;
+    private final int depth;
+
+    Level(DirectoryStream<Path> stream, int depth) {
+      this.stream = stream;
+      this.iterator = stream.iterator();
+      this.depth = depth;
+    }
+  }
+
+  /**
+   * Lists a directory, forks a task per subdirectory and per batch of matching entries, then
+   * waits for them.
+   */
+  private final class WalkTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient Path directory;
+    private final int depth;
+    private final transient Consumer<? super Entry> action;
+
+    WalkTask(Path directory, int depth, Consumer<? super Entry> action) {
+      this.directory = directory;
+      this.depth = depth;
+      this.action = action;
+    }
+
+    @Override
+    protected void compute() {
+      final List<ForkJoinTask<?>> tasks = new ArrayList<>();
+      final int childDepth = depth + NumberConstants.ONE;
+      List<Entry> batch = new ArrayList<>();
+      RuntimeException failure = null;
+      try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+        for (Path path : stream) {
+          final BasicFileAttributes attributes = readAttributes(path);
+          if (attributes == null) {
+            continue;
+          }
+          if (attributes.isDirectory() && childDepth < maxDepth) {
+            tasks.add(new WalkTask(path, childDepth, action).fork());
+          }
+          if (matches(path, attributes)) {
+            batch.add(new Entry(path, attributes, childDepth));
+            if (batch.size() == BATCH_SIZE) {
+              tasks.add(forkBatch(batch));
+              batch = new ArrayList<>();
+            }
+          }
+        }
+        batch.forEach(action);
+      } catch (NoSuchFileException e) {
+        if (depth == NumberConstants.ZERO) {
+          failure = new FileSystemOperationException(e);
+        }
+        // removed during the walk
+      } catch (IOException e) {
+        failure = new FileSystemOperationException(e);
+      } catch (DirectoryIteratorException e) {
+        failure = new FileSystemOperationException(e.getCause());
+      } catch (RuntimeException e) {
+        failure = e;
+      }
+      joinAll(tasks, failure);
+    }
+
+    private ForkJoinTask<?> forkBatch(List<Entry> batch) {
+      return ForkJoinTask.adapt(() -> batch.forEach(action)).fork();
+    }
+  }
+
+  /**
+   * A builder of {@link FileWalker}.
+   */
+  public static class Builder {
+
+    private int maxDepth = Integer.MAX_VALUE;
+    private String glob;
+    private List<FileExtensionEnum> extensions = new ArrayList<>();
+    private boolean includeDirectories;
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+
+    /**
+     * Set the maximum depth of the entries, 1 for the entries of the start directory only,
+     * unlimited by default.
+     *
+     * @param maxDepth the maximum depth
+     * @return {@link Builder} instance
+     */
+    public Builder maxDepth(int maxDepth) {
+      this.maxDepth = maxDepth;
+      return this;
+    }
+
+    /**
+     * Set the glob the file names of the entries must match, such as {@code *.{csv,txt}}, see
+     * {@link java.nio.file.FileSystem#getPathMatcher(String)}.
+     *
+     * @param glob the glob of the file names
+     * @return {@link Builder} instance
+     */
+    public Builder glob(String glob) {
+      this.glob = glob;
+      return this;
+    }
+
+    /**
+     * Set the extensions one of which the entries must have, compared ignoring case, any extension
+     * by default.
+     *
+     * @param extensions the extensions of the entries
+     * @return {@link Builder} instance
+     */
+    public Builder extensions(FileExtensionEnum... extensions) {
+      Assert.notNull(extensions, "extensions must not be null");
+      this.extensions = Arrays.asList(extensions);
+      return this;
+    }
+
+    /**
+     * Set whether directories are reported, {@code false} by default. Directories are walked
+     * either way.
+     *
+     * @param includeDirectories whether directories are reported
+     * @return {@link Builder} instance
+     */
+    public Builder includeDirectories(boolean includeDirectories) {
+      this.includeDirectories = includeDirectories;
+      return this;
+    }
+
+    /**
+     * Set the pool of {@link #forEachParallel(Path, Consumer)},
+     * {@link ForkJoinPool#commonPool()} by default.
+     *
+     * @param pool the pool to use
+     * @return {@link Builder} instance
+     */
+    public Builder pool(ForkJoinPool pool) {
+      this.pool = pool;
+      return this;
+    }
+
+    /**
+     * Builds the walker.
+     *
+     * @return the built walker
+     */
+    public FileWalker build() {
+      Assert.isTrue(maxDepth > NumberConstants.ZERO, "maxDepth must be positive");
+      Assert.isTrue(glob == null || !glob.isEmpty(), "glob must not be empty");
+      Assert.noNullElements(extensions.toArray(), "extensions must not contain null elements");
+      Assert.notNull(pool, "pool must not be null");
+      return new FileWalker(this);
+    }
+  }
+
+}
@@ -0,0 +1,204 @@
+package cn.maiaimei.commons.lang.utils;
+
+import cn.maiaimei.commons.lang.constants.NumberConstants;
+import cn.maiaimei.commons.lang.exception.FileSystemOperationException;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import org.springframework.util.Assert;
+
+/**
+ * Appends to a file from many threads with group commit: a write returns once its bytes are
+ * written and, if enabled, forced to the storage device. The first writer to find no batch in
+ * progress writes every pending write at once with a gathering write and forces the file a single
+ * time, the writers arriving meanwhile wait and form the next batch. Under load, many small writes
+ * share one force instead of paying for one each.
+ * <p>
+ * The bytes of a write are appended contiguously. After a failed batch the file content is
+ * unknown, the writer fails every write until closed. Instances are thread-safe, create them with
+ * {@link FileUtils#newGroupCommitWriter(java.io.File, boolean)}.
+ * <p>
+ * A batch is written on the thread of one of the writers. Interrupting a thread that is
+ * writing a batch closes the file channel, so the batch fails along with every later write. A
+ * thread that is already interrupted when its batch starts may still write it, and its interrupt
+ * status is restored afterwards.
+ */
+public final class GroupCommitWriter implements Closeable {
+
+  private final FileChannel channel;
+  private final boolean force;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition committed = lock.newCondition();
+
+  /**
+   * The writes waiting for the next batch, guarded by {@link #lock}
+   */
+  private List<ByteBuffer> pending = new ArrayList<>();
+
+  /**
+   * The number of writes submitted
+   */
+  private long submitted;
+
+  /**
+   * The number of writes committed, all the writes up to it are durable
+   */
+  private long durable;
+
+  private long batchCount;
+
+  /**
+   * Whether a batch is being written
+   */
+  private boolean committing;
+
+  private IOException failure;
+
+  private boolean closed;
+
+  GroupCommitWriter(FileChannel channel, boolean force) {
+    this.channel = channel;
+    this.force = force;
+  }
+
+  /**
+   * Append the bytes and wait for them to be committed.
+   *
+   * @param data the bytes to append, must not be {@code null}
+   */
+  public void write(byte[] data) {
+    Assert.notNull(data, "data must not be null");
+    write(ByteBuffer.wrap(data));
+  }
+
+  /**
+   * Append the bytes between the position and the limit of the buffer and wait for them to be
+   * committed. The position of the buffer is not changed, the buffer must not be modified until
+   * the method returns.
+   *
+   * @param data the bytes to append, must not be {@code null}
+   */
+  public void write(ByteBuffer data) {
+    Assert.notNull(data, "data must not be null");
+    lock.lock();
+    try {
+      checkWritable();
+      pending.add(data.duplicate());
+      final long sequence = ++submitted;
+      while (durable < sequence) {
+        checkWritable();
+        if (committing) {
+          committed.awaitUninterruptibly();
+        } else {
+          commit();
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the number of batches committed, at most one per write.
+   *
+   * @return the number of batches
+   */
+  public long getBatchCount() {
+    lock.lock();
+    try {
+      return batchCount;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the number of writes waiting for the next batch.
+   *
+   * @return the number of pending writes
+   */
+  int getPendingCount() {
+    lock.lock();
+    try {
+      return pending.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Wait for the batch in progress, if any, then close the file.
+   */
+  @Override
+  public void close() {
+    lock.lock();
+    try {
+      if (closed) {
+        return;
+      }
+      while (committing || failure == null && durable < submitted) {
+        committed.awaitUninterruptibly();
+      }
+      closed = true;
+      channel.close();
+    } catch (IOException e) {
+      throw new FileSystemOperationException(e);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Write the pending writes as one batch, the lock is released while writing.
+   */
+  private void commit() {
+    final List<ByteBuffer> batch = pending;
+    final long last = submitted;
+    pending = new ArrayList<>();
+    committing = true;
+    lock.unlock();
+    IOException error = null;
+    // an interrupted thread would close the shared channel on its first I/O operation
+    final boolean interrupted = Thread.interrupted();
+    try {
+      final ByteBuffer[] buffers = batch.toArray(new ByteBuffer[NumberConstants.ZERO]);
+      final long bytes = batch.stream().mapToLong(ByteBuffer::remaining).sum();
+      long written = NumberConstants.ZERO;
+      while (written < bytes) {
+        written += channel.write(buffers);
+      }
+      if (force) {
+        channel.force(false);
+      }
+    } catch (IOException e) {
+      error = e;
+    } finally {
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+      lock.lock();
+      committing = false;
+      if (error == null) {
+        durable = last;
+        batchCount++;
+      } else {
+        failure = error;
+      }
+      committed.signalAll();
+    }
+  }
+
+  private void checkWritable() {
+    Assert.state(!closed, "GroupCommitWriter is closed");
+    if (failure != null) {
+      throw new FileSystemOperationException("A previous batch failed", failure);
+    }
+  }
+
+}
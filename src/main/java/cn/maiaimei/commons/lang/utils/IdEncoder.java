@@ -0,0 +1,257 @@
+package cn.maiaimei.commons.lang.utils;
+
+import cn.maiaimei.commons.lang.constants.NumberConstants;
+import java.util.Arrays;
+import org.springframework.util.Assert;
+
+/**
+ * Encodes unsigned 64-bit and 128-bit ids as fixed-width text that sorts lexicographically in the
+ * same order as the ids, and decodes it back.
+ * <p>
+ * Both alphabets are in ascending ASCII order and every id is left padded with the zero digit to
+ * the full width, so comparing the texts char by char, such as in a B-tree index or a file name
+ * listing, gives the numeric order. Encoding and decoding use precomputed lookup tables and write
+ * straight into a {@code char[]}. Instances are immutable and thread-safe.
+ */
+public final class IdEncoder {
+
+  /**
+   * Crockford's base32, 13 chars per 64-bit id and 26 chars per 128-bit id. Decoding ignores case.
+   */
+  public static final IdEncoder BASE32 = new IdEncoder("0123456789ABCDEFGHJKMNPQRSTVWXYZ", true);
+
+  /**
+   * Base62 of digits, upper case and lower case letters, 11 chars per 64-bit id and 22 chars per
+   * 128-bit id. Decoding is case-sensitive.
+   */
+  public static final IdEncoder BASE62 =
+      new IdEncoder("0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz", false);
+
+  private static final long INT_MASK = 0xFFFFFFFFL;
+
+  /**
+   * The digits, in ascending order
+   */
+  private final char[] alphabet;
+
+  /**
+   * The value of every ASCII char, -1 if the char is not a digit
+   */
+  private final byte[] values;
+
+  private final int radix;
+
+  /**
+   * The width of an encoded 64-bit id
+   */
+  private final int width64;
+
+  /**
+   * The width of an encoded 128-bit id
+   */
+  private final int width128;
+
+  private IdEncoder(String alphabet, boolean ignoreCase) {
+    this.alphabet = alphabet.toCharArray();
+    this.radix = alphabet.length();
+    this.values = new byte[128];
+    Arrays.fill(values, (byte) -1);
+    for (int i = 0; i < radix; i++) {
+      final char c = alphabet.charAt(i);
+      values[c] = (byte) i;
+      if (ignoreCase) {
+        values[Character.toLowerCase(c)] = (byte) i;
+      }
+    }
+    this.width64 = (int) Math.ceil(64 / (Math.log(radix) / Math.log(2)));
+    this.width128 = (int) Math.ceil(128 / (Math.log(radix) / Math.log(2)));
+  }
+
+  /**
+   * Returns the number of chars of an encoded 64-bit id.
+   *
+   * @return the width
+   */
+  public int getWidth() {
+    return width64;
+  }
+
+  /**
+   * Returns the number of chars of an encoded 128-bit id.
+   *
+   * @return the width
+   */
+  public int getWidth128() {
+    return width128;
+  }
+
+  /**
+   * Encode an unsigned 64-bit id.
+   *
+   * @param id the id to encode
+   * @return the fixed-width text
+   */
+  public String encode(long id) {
+    final char[] chars = new char[width64];
+    encode(id, chars, NumberConstants.ZERO);
+    return new String(chars);
+  }
+
+  /**
+   * Encode an unsigned 64-bit id into the char array.
+   *
+   * @param id     the id to encode
+   * @param dest   the char array to write to
+   * @param offset the index of the first char to write
+   * @return the index after the last char written
+   * @throws IndexOutOfBoundsException if the char array is too small
+   */
+  public int encode(long id, char[] dest, int offset) {
+    checkBounds(dest.length, offset, width64);
+    int position = offset + width64;
+    if (radix == 32) {
+      while (position > offset) {
+        dest[--position] = alphabet[(int) (id & 31)];
+        id >>>= 5;
+      }
+      return offset + width64;
+    }
+    if (id < 0) {
+      dest[--position] = alphabet[(int) Long.remainderUnsigned(id, radix)];
+      id = Long.divideUnsigned(id, radix);
+    }
+    while (position > offset) {
+      dest[--position] = alphabet[(int) (id % radix)];
+      id /= radix;
+    }
+    return offset + width64;
+  }
+
+  /**
+   * Encode an unsigned 128-bit id.
+   *
+   * @param high the most significant 64 bits
+   * @param low  the least significant 64 bits
+   * @return the fixed-width text
+   */
+  public String encode(long high, long low) {
+    final char[] chars = new char[width128];
+    encode(high, low, chars, NumberConstants.ZERO);
+    return new String(chars);
+  }
+
+  /**
+   * Encode an unsigned 128-bit id into the char array.
+   *
+   * @param high   the most significant 64 bits
+   * @param low    the least significant 64 bits
+   * @param dest   the char array to write to
+   * @param offset the index of the first char to write
+   * @return the index after the last char written
+   * @throws IndexOutOfBoundsException if the char array is too small
+   */
+  public int encode(long high, long low, char[] dest, int offset) {
+    checkBounds(dest.length, offset, width128);
+    int position = offset + width128;
+    if (radix == 32) {
+      while (position > offset) {
+        dest[--position] = alphabet[(int) (low & 31)];
+        low = (low >>> 5) | (high << 59);
+        high >>>= 5;
+      }
+      return offset + width128;
+    }
+    // divide the four 32-bit limbs by the radix, most significant limb first
+    long limb0 = high >>> 32;
+    long limb1 = high & INT_MASK;
+    long limb2 = low >>> 32;
+    long limb3 = low & INT_MASK;
+    while (position > offset) {
+      long remainder = limb0 % radix;
+      limb0 /= radix;
+      long dividend = (remainder << 32) | limb1;
+      limb1 = dividend / radix;
+      remainder = dividend % radix;
+      dividend = (remainder << 32) | limb2;
+      limb2 = dividend / radix;
+      remainder = dividend % radix;
+      dividend = (remainder << 32) | limb3;
+      limb3 = dividend / radix;
+      dest[--position] = alphabet[(int) (dividend % radix)];
+    }
+    return offset + width128;
+  }
+
+  /**
+   * Decode the text of an unsigned 64-bit id.
+   *
+   * @param text the fixed-width text
+   * @return the id
+   * @throws IllegalArgumentException if the text is not a valid encoded 64-bit id
+   */
+  public long decode(CharSequence text) {
+    Assert.notNull(text, "text must not be null");
+    Assert.isTrue(text.length() == width64, "text must be " + width64 + " chars");
+    long id = 0;
+    for (int i = 0; i < width64; i++) {
+      final int value = valueOf(text.charAt(i));
+      if (radix == 32) {
+        Assert.isTrue(i > 0 || value < 16, "text exceeds 64 bits");
+        id = (id << 5) | value;
+      } else {
+        Assert.isTrue(Long.compareUnsigned(id, Long.divideUnsigned(-1L - value, radix)) <= 0,
+            "text exceeds 64 bits");
+        id = id * radix + value;
+      }
+    }
+    return id;
+  }
+
+  /**
+   * Decode the text of an unsigned 128-bit id.
+   *
+   * @param text the fixed-width text
+   * @return the most and least significant 64 bits of the id
+   * @throws IllegalArgumentException if the text is not a valid encoded 128-bit id
+   */
+  public long[] decode128(CharSequence text) {
+    Assert.notNull(text, "text must not be null");
+    Assert.isTrue(text.length() == width128, "text must be " + width128 + " chars");
+    long limb0 = 0;
+    long limb1 = 0;
+    long limb2 = 0;
+    long limb3 = 0;
+    for (int i = 0; i < width128; i++) {
+      // multiply the four 32-bit limbs by the radix and add the digit, least significant first
+      long carry = valueOf(text.charAt(i));
+      long product = limb3 * radix + carry;
+      limb3 = product & INT_MASK;
+      carry = product >>> 32;
+      product = limb2 * radix + carry;
+      limb2 = product & INT_MASK;
+      carry = product >>> 32;
+      product = limb1 * radix + carry;
+      limb1 = product & INT_MASK;
+      carry = product >>> 32;
+      product = limb0 * radix + carry;
+      limb0 = product & INT_MASK;
+      Assert.isTrue(product >>> 32 == 0, "text exceeds 128 bits");
+    }
+    return new long[]{(limb0 << 32) | limb1, (limb2 << 32) | limb3};
+  }
+
+  private int valueOf(char c) {
+    final int value = c < 128 ? values[c] : -1;
+    if (value < 0) {
+      throw new IllegalArgumentException("Invalid char '" + c + "'");
+    }
+    return value;
+  }
+
+  private static void checkBounds(int length, int offset, int width) {
+    if (offset < 0 || offset + width > length) {
+      throw new IndexOutOfBoundsException("offset " + offset + ", width " + width);
+    }
+  }
+
+}
@@ -3,17 +3,43 @@ package cn.maiaimei.commons.lang.utils;
 import cn.maiaimei.commons.lang.constants.DateTimeConstants;
 import cn.maiaimei.commons.lang.constants.NumberConstants;
 import java.math.BigDecimal;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.util.Assert;
 
 public final class IdGenerator {
 
-  private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern(
+  private static final TimestampFormatter FORMATTER = TimestampFormatter.ofPattern(
       DateTimeConstants.YYYYMMDDHHMMSSSSS);
 
   private static final AtomicInteger ATOMIC_INTEGER = new AtomicInteger(NumberConstants.ZERO);
 
+  /**
+   * The block of serial numbers leased by the current thread
+   */
+  private static final ThreadLocal<SequenceBlock> SEQUENCE_BLOCK =
+      ThreadLocal.withInitial(SequenceBlock::new);
+
+  /**
+   * The number of blocks leased from the shared counter
+   */
+  private static final LongAdder LEASE_COUNT = new LongAdder();
+
+  /**
+   * The system property of the worker id of the default {@link SnowflakeIdGenerator}
+   */
+  public static final String WORKER_ID_PROPERTY = "cn.maiaimei.commons.lang.workerId";
+
+  /**
+   * The generator of 64-bit ids, created on first use
+   */
+  private static volatile SnowflakeIdGenerator snowflakeIdGenerator;
+
+  /**
+   * The number of serial numbers a thread leases at once, {@code 1} disables leasing
+   */
+  private static volatile int sequenceBlockSize = NumberConstants.ONE;
+
   private IdGenerator() {
     throw new UnsupportedOperationException();
   }
@@ -27,14 +53,164 @@ public final class IdGenerator {
   }
 
   public static String nextIdString() {
-    final String serialNumber = String.format("%03d", ATOMIC_INTEGER.getAndIncrement());
-    return String.format("%s%s", FORMATTER.format(LocalDateTime.now()), serialNumber);
+    return nextIdString(NumberConstants.THREE);
   }
 
   public static String nextIdString(int capacity) {
-    final String format = "%0" + capacity + "d";
-    final String serialNumber = String.format(format, ATOMIC_INTEGER.getAndIncrement());
-    return String.format("%s%s", FORMATTER.format(LocalDateTime.now()), serialNumber);
+    final int serialNumber = nextSerialNumber();
+    final StringBuilder builder = new StringBuilder(
+        DateTimeConstants.YYYYMMDDHHMMSSSSS.length() + Math.max(capacity, NumberConstants.TEN));
+    FORMATTER.formatTo(System.currentTimeMillis(), builder);
+    if (serialNumber < NumberConstants.ZERO) {
+      return builder.append(String.format("%0" + capacity + "d", serialNumber)).toString();
+    }
+    final String digits = Integer.toString(serialNumber);
+    for (int i = digits.length(); i < capacity; i++) {
+      builder.append('0');
+    }
+    return builder.append(digits).toString();
+  }
+
+  /**
+   * Returns the next 64-bit id, see {@link SnowflakeIdGenerator#nextId()}.
+   *
+   * @return a unique, time-ordered, positive id
+   */
+  public static long nextLongId() {
+    return snowflakeIdGenerator().nextId();
+  }
+
+  /**
+   * Returns the next 64-bit id as 13 chars of Crockford's base32, which sort in the same order as
+   * the ids, see {@link IdEncoder#BASE32}.
+   *
+   * @return a unique, time-ordered, fixed-width id
+   */
+  public static String nextCompactId() {
+    return IdEncoder.BASE32.encode(nextLongId());
+  }
+
+  /**
+   * Reserve {@code count} unique 64-bit ids in a single atomic step, see
+   * {@link SnowflakeIdGenerator#reserve(int)}. The returned range hands out the ids as a
+   * {@code long[]}, a {@link java.util.stream.LongStream} or a lazy iterator without creating an
+   * object per id.
+   *
+   * @param count the number of ids
+   * @return the reserved ids
+   */
+  public static SnowflakeIdGenerator.IdRange reserve(int count) {
+    return snowflakeIdGenerator().reserve(count);
+  }
+
+  /**
+   * Set the generator of {@link #nextLongId()} and {@link #reserve(int)}. By default its worker id
+   * is read from the {@value #WORKER_ID_PROPERTY} system property, or {@code 0}, when a 64-bit id
+   * is first requested.
+   *
+   * @param generator the generator to use, must not be {@code null}
+   */
+  public static void setSnowflakeIdGenerator(SnowflakeIdGenerator generator) {
+    Assert.notNull(generator, "generator must not be null");
+    // under the lock of the lazy creation, which would overwrite it otherwise
+    synchronized (IdGenerator.class) {
+      snowflakeIdGenerator = generator;
+    }
+  }
+
+  /**
+   * Set the number of serial numbers each thread leases from the shared counter at once. With a
+   * block size above {@code 1}, threads hand out serial numbers from their own block and touch the
+   * shared counter once per block, so ids stay unique but are only roughly increasing across
+   * threads.
+   *
+   * @param blockSize the block size, {@code 1} takes every serial number from the shared counter
+   */
+  public static void setSequenceBlockSize(int blockSize) {
+    Assert.isTrue(blockSize >= NumberConstants.ONE, "blockSize must be positive");
+    sequenceBlockSize = blockSize;
+  }
+
+  /**
+   * Returns the number of serial numbers each thread leases from the shared counter at once.
+   *
+   * @return the block size
+   */
+  public static int getSequenceBlockSize() {
+    return sequenceBlockSize;
+  }
+
+  /**
+   * Returns how many blocks of serial numbers threads have leased from the shared counter.
+   *
+   * @return the number of leases
+   */
+  public static long getSequenceLeaseCount() {
+    return LEASE_COUNT.sum();
+  }
+
+  /**
+   * Returns the generator of 64-bit ids, creating the default one on first use so that an invalid
+   * {@value #WORKER_ID_PROPERTY} fails the call instead of the class initialization.
+   */
+  private static SnowflakeIdGenerator snowflakeIdGenerator() {
+    SnowflakeIdGenerator generator = snowflakeIdGenerator;
+    if (generator == null) {
+      synchronized (IdGenerator.class) {
+        generator = snowflakeIdGenerator;
+        if (generator == null) {
+          generator = defaultSnowflakeIdGenerator(System.getProperty(WORKER_ID_PROPERTY));
+          snowflakeIdGenerator = generator;
+        }
+      }
+    }
+    return generator;
+  }
+
+  /**
+   * Create the default generator of 64-bit ids.
+   *
+   * @param workerId the value of the {@value #WORKER_ID_PROPERTY} system property, {@code null}
+   *                 for worker id {@code 0}
+   * @return a new generator
+   * @throws IllegalStateException if the worker id is not a number or out of range
+   */
+  static SnowflakeIdGenerator defaultSnowflakeIdGenerator(String workerId) {
+    try {
+      return SnowflakeIdGenerator.of(
+          workerId == null ? NumberConstants.ZERO : Long.parseLong(workerId.trim()));
+    } catch (IllegalArgumentException e) {
+      // including NumberFormatException
+      throw new IllegalStateException(String.format("Invalid system property %s=%s: %s",
+          WORKER_ID_PROPERTY, workerId, e.getMessage()), e);
+    }
+  }
+
+  /**
+   * Returns the next serial number, from the block of the current thread if leasing is enabled.
+   */
+  private static int nextSerialNumber() {
+    final int blockSize = sequenceBlockSize;
+    if (blockSize == NumberConstants.ONE) {
+      return ATOMIC_INTEGER.getAndIncrement();
+    }
+    final SequenceBlock block = SEQUENCE_BLOCK.get();
+    if (block.remaining == NumberConstants.ZERO) {
+      block.next = ATOMIC_INTEGER.getAndAdd(blockSize);
+      block.remaining = blockSize;
+      LEASE_COUNT.increment();
+    }
+    block.remaining--;
+    return block.next++;
+  }
+
+  /**
+   * A block of serial numbers leased by one thread.
+   */
+  private static final class SequenceBlock {
+
+    private int next;
+    private int remaining;
   }
 
 }
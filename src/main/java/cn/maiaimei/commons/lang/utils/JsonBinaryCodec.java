@@ -0,0 +1,203 @@
+package cn.maiaimei.commons.lang.utils;
+
+import cn.maiaimei.commons.lang.exception.JsonOperationException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.util.Assert;
+
+/**
+ * Reads and writes Java values in a {@link BinaryJsonFormat}, with the same configuration as the
+ * {@link JsonProfile} it belongs to, see {@link JsonProfile#binary(BinaryJsonFormat)}. Binary
+ * payloads are smaller than JSON text and faster to parse, for internal links and caches where
+ * both ends are under control. Instances are immutable and thread-safe.
+ */
+public final class JsonBinaryCodec {
+
+  private final BinaryJsonFormat format;
+
+  private final ObjectMapper objectMapper;
+
+  /**
+   * The readers of {@link #objectMapper}, keyed by value type
+   */
+  private final Map<Type, ObjectReader> readers = new ConcurrentHashMap<>();
+
+  /**
+   * The writers of {@link #objectMapper}, keyed by value type
+   */
+  private final Map<Type, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+  /**
+   * The writer of {@link #objectMapper} without value type
+   */
+  private final ObjectWriter genericWriter;
+
+  JsonBinaryCodec(BinaryJsonFormat format, ObjectMapper objectMapper) {
+    this.format = format;
+    this.objectMapper = objectMapper;
+    this.genericWriter = objectMapper.writer();
+  }
+
+  /**
+   * Returns the format of this codec.
+   *
+   * @return the format
+   */
+  public BinaryJsonFormat getFormat() {
+    return format;
+  }
+
+  /**
+   * Serialize any Java value as bytes
+   *
+   * @param value any Java value
+   * @return the bytes
+   */
+  public byte[] toBytes(Object value) {
+    try {
+      return writerFor(value).writeValueAsBytes(value);
+    } catch (JsonProcessingException e) {
+      throw new JsonOperationException(e);
+    }
+  }
+
+  /**
+   * Serialize any Java value into the output stream. The output stream is flushed but not closed.
+   *
+   * @param value any Java value
+   * @param out   the output stream to write to
+   */
+  public void writeTo(Object value, OutputStream out) {
+    Assert.notNull(out, "out must not be null");
+    try {
+      writerFor(value).writeValue(out, value);
+    } catch (IOException e) {
+      throw new JsonOperationException(e);
+    }
+  }
+
+  /**
+   * Deserialize bytes as the given Java value
+   *
+   * @param value     the bytes
+   * @param valueType the given Java value type
+   * @param <T>       the type of the given Java value
+   * @return the given Java value
+   */
+  public <T> T toObject(byte[] value, Class<T> valueType) {
+    Assert.notNull(value, "value must not be null");
+    try {
+      return readerFor(valueType).readValue(value);
+    } catch (IOException e) {
+      throw new JsonOperationException(e);
+    }
+  }
+
+  /**
+   * Deserialize bytes as the given Java value
+   *
+   * @param value        the bytes
+   * @param valueTypeRef the given Java value type
+   * @param <T>          the type of the given Java value
+   * @return the given Java value
+   */
+  public <T> T toObject(byte[] value, TypeReference<T> valueTypeRef) {
+    Assert.notNull(value, "value must not be null");
+    try {
+      return readerFor(valueTypeRef).readValue(value);
+    } catch (IOException e) {
+      throw new JsonOperationException(e);
+    }
+  }
+
+  /**
+   * Deserialize the input stream as the given Java value. The input stream is not closed.
+   *
+   * @param in        the input stream to read from
+   * @param valueType the given Java value type
+   * @param <T>       the type of the given Java value
+   * @return the given Java value
+   */
+  public <T> T toObject(InputStream in, Class<T> valueType) {
+    Assert.notNull(in, "in must not be null");
+    try {
+      return readerFor(valueType).readValue(in);
+    } catch (IOException e) {
+      throw new JsonOperationException(e);
+    }
+  }
+
+  /**
+   * Deserialize the input stream as the given Java value. The input stream is not closed.
+   *
+   * @param in           the input stream to read from
+   * @param valueTypeRef the given Java value type
+   * @param <T>          the type of the given Java value
+   * @return the given Java value
+   */
+  public <T> T toObject(InputStream in, TypeReference<T> valueTypeRef) {
+    Assert.notNull(in, "in must not be null");
+    try {
+      return readerFor(valueTypeRef).readValue(in);
+    } catch (IOException e) {
+      throw new JsonOperationException(e);
+    }
+  }
+
+  /**
+   * Returns the reader of the given Java value type, created once and cached.
+   *
+   * @param valueType the given Java value type
+   * @return the reader
+   */
+  public ObjectReader readerFor(Class<?> valueType) {
+    Assert.notNull(valueType, "valueType must not be null");
+    return readers.computeIfAbsent(valueType, type -> objectMapper.readerFor(valueType));
+  }
+
+  /**
+   * Returns the reader of the given Java value type, created once and cached.
+   *
+   * @param valueTypeRef the given Java value type
+   * @return the reader
+   */
+  public ObjectReader readerFor(TypeReference<?> valueTypeRef) {
+    Assert.notNull(valueTypeRef, "valueTypeRef must not be null");
+    return readers.computeIfAbsent(valueTypeRef.getType(),
+        type -> objectMapper.readerFor(valueTypeRef));
+  }
+
+  /**
+   * Returns the writer of the given Java value type, created once and cached.
+   *
+   * @param valueType the given Java value type
+   * @return the writer
+   */
+  public ObjectWriter writerFor(Class<?> valueType) {
+    Assert.notNull(valueType, "valueType must not be null");
+    return writers.computeIfAbsent(valueType, type -> objectMapper.writerFor(valueType));
+  }
+
+  /**
+   * Returns the untyped writer, which resolves the serializer of the runtime type of the value
+   * through the bounded serializer cache of the mapper.
+   */
+  private ObjectWriter writerFor(Object value) {
+    return genericWriter;
+  }
+
+  @Override
+  public String toString() {
+    return "JsonBinaryCodec[" + format + "]";
+  }
+
+}
@@ -0,0 +1,145 @@
+package cn.maiaimei.commons.lang.utils;
+
+import cn.maiaimei.commons.lang.constants.NumberConstants;
+import com.fasterxml.jackson.core.util.BufferRecycler;
+import com.fasterxml.jackson.core.util.RecyclerPool;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.util.Assert;
+
+/**
+ * A bounded pool of Jackson {@link BufferRecycler}s shared by all threads. Jackson's default
+ * recycler is kept in a {@link ThreadLocal}, so every thread keeps its own buffers alive, and
+ * short-lived or virtual threads allocate fresh ones. This pool lends a recycler to each parser,
+ * generator or {@code writeValueAsString} call and takes it back when that call is done. Recyclers
+ * returned to a full pool are dropped, so at most {@code capacity} recyclers are retained however
+ * many threads there are.
+ * <p>
+ * The pool is guarded by a {@link java.util.concurrent.locks.ReentrantLock}, not by
+ * {@code synchronized}, so it does not pin virtual threads. Instances are thread-safe.
+ */
+public final class JsonBufferPool implements RecyclerPool<BufferRecycler> {
+
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * The default capacity, four recyclers per available processor
+   */
+  public static final int DEFAULT_CAPACITY =
+      Runtime.getRuntime().availableProcessors() * NumberConstants.FOUR;
+
+  private final int capacity;
+
+  private final BlockingQueue<BufferRecycler> pool;
+
+  private final LongAdder hitCount = new LongAdder();
+
+  private final LongAdder missCount = new LongAdder();
+
+  private final LongAdder dropCount = new LongAdder();
+
+  /**
+   * Create a pool retaining up to the given number of recyclers.
+   *
+   * @param capacity the maximum number of pooled recyclers
+   */
+  public JsonBufferPool(int capacity) {
+    Assert.isTrue(capacity > NumberConstants.ZERO, "capacity must be positive");
+    this.capacity = capacity;
+    this.pool = new ArrayBlockingQueue<>(capacity);
+  }
+
+  @Override
+  public BufferRecycler acquirePooled() {
+    final BufferRecycler recycler = pool.poll();
+    if (recycler == null) {
+      missCount.increment();
+      return new BufferRecycler();
+    }
+    hitCount.increment();
+    return recycler;
+  }
+
+  @Override
+  public void releasePooled(BufferRecycler recycler) {
+    if (!pool.offer(recycler)) {
+      dropCount.increment();
+    }
+  }
+
+  @Override
+  public int pooledCount() {
+    return pool.size();
+  }
+
+  @Override
+  public boolean clear() {
+    pool.clear();
+    return true;
+  }
+
+  /**
+   * Returns the maximum number of pooled recyclers.
+   *
+   * @return the capacity
+   */
+  public int getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * Returns the number of acquisitions served by a pooled recycler.
+   *
+   * @return the hit count
+   */
+  public long getHitCount() {
+    return hitCount.sum();
+  }
+
+  /**
+   * Returns the number of acquisitions that allocated a new recycler.
+   *
+   * @return the miss count
+   */
+  public long getMissCount() {
+    return missCount.sum();
+  }
+
+  /**
+   * Returns the number of recyclers dropped because the pool was full.
+   *
+   * @return the drop count
+   */
+  public long getDropCount() {
+    return dropCount.sum();
+  }
+
+  /**
+   * Returns the ratio of acquisitions served by a pooled recycler, {@code 1.0} if there was none.
+   *
+   * @return the hit rate between {@code 0.0} and {@code 1.0}
+   */
+  public double getHitRate() {
+    final long hits = hitCount.sum();
+    final long total = hits + missCount.sum();
+    return total == NumberConstants.ZERO ? 1.0d : (double) hits / total;
+  }
+
+  /**
+   * Reset the hit, miss and drop counts.
+   */
+  public void resetStats() {
+    hitCount.reset();
+    missCount.reset();
+    dropCount.reset();
+  }
+
+  @Override
+  public String toString() {
+    return "JsonBufferPool[capacity=" + capacity + ", pooled=" + pool.size()
+        + ", hits=" + getHitCount() + ", misses=" + getMissCount() + ", drops=" + getDropCount()
+        + "]";
+  }
+
+}
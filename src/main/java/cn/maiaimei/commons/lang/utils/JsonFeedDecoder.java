@@ -0,0 +1,220 @@
+package cn.maiaimei.commons.lang.utils;
+
+import cn.maiaimei.commons.lang.constants.NumberConstants;
+import cn.maiaimei.commons.lang.exception.JsonOperationException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteBufferFeeder;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.function.Consumer;
+import org.springframework.util.Assert;
+
+/**
+ * Decodes root-level JSON values, such as a stream of messages or newline-delimited JSON, from
+ * byte chunks as they arrive, without blocking and without collecting the whole message. Each
+ * chunk is tokenized at once by a Jackson non-blocking parser, the tokens of a value are kept until
+ * the value is complete, then the value is bound and handed to the callback on the calling thread.
+ * Only the partial value is retained between chunks, its size can be capped with
+ * {@link #setMaxValueBytes(long)}.
+ * <p>
+ * Chunks are read in place and fully consumed before {@code feed} returns, so the caller may
+ * reuse its buffer. Instances are not thread-safe, use one per connection.
+ *
+ * @param <T> the type of the values
+ */
+public final class JsonFeedDecoder<T> implements Closeable {
+
+  private final ObjectReader reader;
+  private final Consumer<? super T> consumer;
+  private final JsonParser parser;
+  private final ByteBufferFeeder feeder;
+
+  /**
+   * The tokens of the current value, {@code null} between values
+   */
+  private TokenBuffer tokens;
+
+  /**
+   * The nesting depth in the current value
+   */
+  private int depth;
+
+  /**
+   * The byte offset of the first token of the current value
+   */
+  private long valueStart;
+
+  private long maxValueBytes = Long.MAX_VALUE;
+
+  private boolean closed;
+
+  JsonFeedDecoder(ObjectReader reader, Consumer<? super T> consumer) {
+    Assert.notNull(consumer, "consumer must not be null");
+    this.reader = reader;
+    this.consumer = consumer;
+    try {
+      this.parser = reader.getFactory().createNonBlockingByteBufferParser();
+    } catch (IOException e) {
+      throw new JsonOperationException(e);
+    }
+    this.feeder = (ByteBufferFeeder) parser.getNonBlockingInputFeeder();
+  }
+
+  /**
+   * Set the maximum number of bytes of a value, a larger value fails the decoder. Unlimited by
+   * default.
+   *
+   * @param maxValueBytes the maximum number of bytes
+   */
+  public void setMaxValueBytes(long maxValueBytes) {
+    Assert.isTrue(maxValueBytes > NumberConstants.ZERO, "maxValueBytes must be positive");
+    this.maxValueBytes = maxValueBytes;
+  }
+
+  /**
+   * Feed a chunk and emit the values it completes.
+   *
+   * @param data the chunk
+   * @return the number of values emitted
+   */
+  public int feed(byte[] data) {
+    Assert.notNull(data, "data must not be null");
+    return feed(ByteBuffer.wrap(data));
+  }
+
+  /**
+   * Feed a chunk and emit the values it completes.
+   *
+   * @param data   the array holding the chunk
+   * @param offset the index of the first byte of the chunk
+   * @param length the number of bytes of the chunk
+   * @return the number of values emitted
+   */
+  public int feed(byte[] data, int offset, int length) {
+    Assert.notNull(data, "data must not be null");
+    return feed(ByteBuffer.wrap(data, offset, length));
+  }
+
+  /**
+   * Feed the bytes between the position and the limit of the buffer and emit the values they
+   * complete, the position is advanced to the limit. If the callback throws, the decoder is closed
+   * and the exception rethrown.
+   *
+   * @param buffer the buffer holding the chunk
+   * @return the number of values emitted
+   */
+  public int feed(ByteBuffer buffer) {
+    Assert.notNull(buffer, "buffer must not be null");
+    Assert.state(!closed, "JsonFeedDecoder is closed");
+    if (!buffer.hasRemaining()) {
+      return NumberConstants.ZERO;
+    }
+    try {
+      feeder.feedInput(buffer);
+      final int count = drain();
+      // through Buffer, ByteBuffer#position(int) does not exist on Java 8
+      ((Buffer) buffer).position(buffer.limit());
+      return count;
+    } catch (IOException e) {
+      close();
+      throw new JsonOperationException(e);
+    } catch (RuntimeException e) {
+      // the rest of the chunk is not decoded, the parser cannot be fed again
+      close();
+      throw e;
+    }
+  }
+
+  /**
+   * Signal the end of the input and emit the last value, fails if a value is incomplete. The
+   * decoder is closed.
+   *
+   * @return the number of values emitted
+   */
+  public int endOfInput() {
+    Assert.state(!closed, "JsonFeedDecoder is closed");
+    try {
+      feeder.endOfInput();
+      return drain();
+    } catch (IOException e) {
+      throw new JsonOperationException(e);
+    } finally {
+      close();
+    }
+  }
+
+  /**
+   * Returns whether a value has been started and not completed yet.
+   *
+   * @return {@code true} if a value is incomplete
+   */
+  public boolean hasPartialValue() {
+    return tokens != null;
+  }
+
+  /**
+   * Close the parser, the partial value if any is discarded.
+   */
+  @Override
+  public void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    tokens = null;
+    try {
+      parser.close();
+    } catch (IOException e) {
+      throw new JsonOperationException(e);
+    }
+  }
+
+  /**
+   * Read the tokens available and emit the values they complete.
+   */
+  private int drain() throws IOException {
+    int count = NumberConstants.ZERO;
+    JsonToken token;
+    while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+      if (tokens == null) {
+        tokens = new TokenBuffer(parser, null);
+        valueStart = parser.currentTokenLocation().getByteOffset();
+      }
+      tokens.copyCurrentEvent(parser);
+      if (token.isStructStart()) {
+        depth++;
+      } else if (token.isStructEnd()) {
+        depth--;
+      }
+      if (depth == NumberConstants.ZERO) {
+        final TokenBuffer value = tokens;
+        tokens = null;
+        try (JsonParser valueParser = value.asParser()) {
+          final T result = reader.readValue(valueParser);
+          consumer.accept(result);
+        }
+        count++;
+      } else {
+        checkValueSize();
+      }
+    }
+    checkValueSize();
+    return count;
+  }
+
+  /**
+   * Fail if the current value, including the partial token held by the parser, is too large.
+   */
+  private void checkValueSize() {
+    if (tokens != null && parser.currentLocation().getByteOffset() - valueStart > maxValueBytes) {
+      close();
+      throw new JsonOperationException("Value exceeds " + maxValueBytes + " bytes");
+    }
+  }
+
+}
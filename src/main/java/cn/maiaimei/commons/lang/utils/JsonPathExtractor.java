@@ -0,0 +1,285 @@
+package cn.maiaimei.commons.lang.utils;
+
+import cn.maiaimei.commons.lang.constants.NumberConstants;
+import cn.maiaimei.commons.lang.exception.JsonOperationException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.util.Assert;
+
+/**
+ * Extracts the values of a few paths from JSON documents in a single pass over the tokens, without
+ * binding the whole document. Subtrees that no path goes through are skipped token by token and
+ * never materialized, only the values at the paths are bound, as the current
+ * {@link JsonProfile} binds {@code Object}, and the pass stops as soon as every path is found.
+ * <p>
+ * A path is a dot separated list of field names and {@code [index]} array indexes, optionally
+ * prefixed with {@code $}, such as {@code order.items[0].sku} or {@code $.id}. {@code $} alone is
+ * the whole document. Compile the paths once and reuse the extractor across documents, instances
+ * are immutable and thread-safe.
+ */
+public final class JsonPathExtractor {
+
+  private final List<String> paths;
+
+  /**
+   * The paths as a tree of segments
+   */
+  private final Segment root;
+
+  private final int pathCount;
+
+  private JsonPathExtractor(List<String> paths, Segment root, int pathCount) {
+    this.paths = paths;
+    this.root = root;
+    this.pathCount = pathCount;
+  }
+
+  /**
+   * Compile the paths.
+   *
+   * @param paths the paths to extract
+   * @return the extractor
+   * @throws IllegalArgumentException if a path is malformed
+   */
+  public static JsonPathExtractor compile(String... paths) {
+    Assert.notEmpty(paths, "paths must not be empty");
+    final Segment root = new Segment();
+    int pathCount = NumberConstants.ZERO;
+    for (String path : paths) {
+      Assert.hasText(path, "path must not be empty");
+      final Segment segment = parse(root, path);
+      if (segment.path == null) {
+        segment.path = path;
+        pathCount++;
+      }
+    }
+    return new JsonPathExtractor(Collections.unmodifiableList(Arrays.asList(paths.clone())), root,
+        pathCount);
+  }
+
+  /**
+   * Returns the paths of this extractor.
+   *
+   * @return the paths
+   */
+  public List<String> getPaths() {
+    return paths;
+  }
+
+  /**
+   * Extract the values of the paths from the JSON String.
+   *
+   * @param json the JSON String
+   * @return the values keyed by path, paths that are not found are absent, a JSON null is a
+   *     {@code null} value
+   */
+  public Map<String, Object> extract(String json) {
+    Assert.notNull(json, "json must not be null");
+    try {
+      final ObjectReader reader = JsonUtils.readerFor(Object.class);
+      return extract(reader, reader.createParser(json));
+    } catch (IOException e) {
+      throw new JsonOperationException(e);
+    }
+  }
+
+  /**
+   * Extract the values of the paths from the UTF-8 encoded JSON bytes.
+   *
+   * @param json the JSON bytes
+   * @return the values keyed by path, paths that are not found are absent, a JSON null is a
+   *     {@code null} value
+   */
+  public Map<String, Object> extract(byte[] json) {
+    Assert.notNull(json, "json must not be null");
+    try {
+      final ObjectReader reader = JsonUtils.readerFor(Object.class);
+      return extract(reader, reader.createParser(json));
+    } catch (IOException e) {
+      throw new JsonOperationException(e);
+    }
+  }
+
+  /**
+   * Extract the values of the paths from the JSON in the input stream, reading stops as soon as
+   * every path is found. The input stream is not closed.
+   *
+   * @param in the input stream to read from
+   * @return the values keyed by path, paths that are not found are absent, a JSON null is a
+   *     {@code null} value
+   */
+  public Map<String, Object> extract(InputStream in) {
+    Assert.notNull(in, "in must not be null");
+    try {
+      final ObjectReader reader = JsonUtils.readerFor(Object.class);
+      return extract(reader, reader.createParser(in));
+    } catch (IOException e) {
+      throw new JsonOperationException(e);
+    }
+  }
+
+  private Map<String, Object> extract(ObjectReader reader, JsonParser parser)
+      throws IOException {
+    try (JsonParser p = parser) {
+      final Map<String, Object> values = new LinkedHashMap<>();
+      if (p.nextToken() != null) {
+        visit(p, reader, root, values);
+      }
+      return values;
+    }
+  }
+
+  /**
+   * Visit the value the parser is positioned on, returns {@code true} when every path is found.
+   */
+  private boolean visit(JsonParser parser, ObjectReader reader, Segment segment,
+      Map<String, Object> values) throws IOException {
+    if (segment.path != null) {
+      final Object value = reader.readValue(parser);
+      values.put(segment.path, value);
+      if (segment.hasChildren()) {
+        collect(value, segment, values);
+      }
+      return values.size() == pathCount;
+    }
+    final JsonToken token = parser.currentToken();
+    if (token == JsonToken.START_OBJECT && segment.fields != null) {
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        final Segment child = segment.fields.get(parser.currentName());
+        parser.nextToken();
+        if (child == null) {
+          parser.skipChildren();
+        } else if (visit(parser, reader, child, values)) {
+          return true;
+        }
+      }
+    } else if (token == JsonToken.START_ARRAY && segment.indexes != null) {
+      for (int index = NumberConstants.ZERO; parser.nextToken() != JsonToken.END_ARRAY; index++) {
+        final Segment child = segment.indexes.get(index);
+        if (child == null) {
+          parser.skipChildren();
+        } else if (visit(parser, reader, child, values)) {
+          return true;
+        }
+      }
+    } else {
+      parser.skipChildren();
+    }
+    return false;
+  }
+
+  /**
+   * Collect the paths below a segment from its bound value.
+   */
+  private static void collect(Object value, Segment segment, Map<String, Object> values) {
+    if (value instanceof Map && segment.fields != null) {
+      final Map<?, ?> map = (Map<?, ?>) value;
+      segment.fields.forEach((name, child) -> {
+        if (map.containsKey(name)) {
+          collect(child, map.get(name), values);
+        }
+      });
+    } else if (value instanceof List && segment.indexes != null) {
+      final List<?> list = (List<?>) value;
+      segment.indexes.forEach((index, child) -> {
+        if (index < list.size()) {
+          collect(child, list.get(index), values);
+        }
+      });
+    }
+  }
+
+  private static void collect(Segment segment, Object value, Map<String, Object> values) {
+    if (segment.path != null) {
+      values.put(segment.path, value);
+    }
+    collect(value, segment, values);
+  }
+
+  /**
+   * Add the segments of the path below the root, returns the last one.
+   */
+  private static Segment parse(Segment root, String path) {
+    int position = NumberConstants.ZERO;
+    if (path.charAt(NumberConstants.ZERO) == '$') {
+      position = path.startsWith("$.") ? NumberConstants.TWO : NumberConstants.ONE;
+    }
+    Segment segment = root;
+    final int length = path.length();
+    while (position < length) {
+      if (path.charAt(position) == '[') {
+        final int end = path.indexOf(']', position);
+        Assert.isTrue(end > position + NumberConstants.ONE, "Invalid path " + path);
+        final int index;
+        try {
+          index = Integer.parseInt(path.substring(position + NumberConstants.ONE, end));
+        } catch (NumberFormatException e) {
+          throw new IllegalArgumentException("Invalid path " + path, e);
+        }
+        Assert.isTrue(index >= NumberConstants.ZERO, "Invalid path " + path);
+        segment = segment.index(index);
+        position = end + NumberConstants.ONE;
+        if (position < length && path.charAt(position) == '.') {
+          position++;
+          Assert.isTrue(position < length, "Invalid path " + path);
+        }
+        continue;
+      }
+      int end = position;
+      while (end < length && path.charAt(end) != '.' && path.charAt(end) != '[') {
+        end++;
+      }
+      Assert.isTrue(end > position, "Invalid path " + path);
+      segment = segment.field(path.substring(position, end));
+      position = end;
+      if (position < length && path.charAt(position) == '.') {
+        position++;
+        Assert.isTrue(position < length, "Invalid path " + path);
+      }
+    }
+    return segment;
+  }
+
+  /**
+   * A field name or array index segment of one or more paths.
+   */
+  private static final class Segment {
+
+    /**
+     * The path ending at this segment, {@code null} if none does
+     */
+    private String path;
+
+    private Map<String, Segment> fields;
+
+    private Map<Integer, Segment> indexes;
+
+    Segment field(String name) {
+      if (fields == null) {
+        fields = new HashMap<>();
+      }
+      return fields.computeIfAbsent(name, key -> new Segment());
+    }
+
+    Segment index(int index) {
+      if (indexes == null) {
+        indexes = new HashMap<>();
+      }
+      return indexes.computeIfAbsent(index, key -> new Segment());
+    }
+
+    boolean hasChildren() {
+      return fields != null || indexes != null;
+    }
+  }
+
+}
@@ -0,0 +1,387 @@
+package cn.maiaimei.commons.lang.utils;
+
+import cn.maiaimei.commons.lang.exception.JsonOperationException;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonFactoryBuilder;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.StreamReadFeature;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import org.springframework.util.Assert;
+
+/**
+ * A named, immutable Jackson configuration with its own cache of readers and writers. A profile is
+ * selected per call with its own methods, such as {@code JsonProfile.FAST_NUMERIC.toObject(json,
+ * Map.class)}, or per thread with {@link JsonUtils#setThreadProfile(JsonProfile)} and
+ * {@link JsonUtils#withProfile(JsonProfile, java.util.function.Supplier)}, which every
+ * {@link JsonUtils} method then uses. {@link #PRECISE} is the default.
+ * <p>
+ * Every profile leaves out {@code null} properties when writing and does not close caller-owned
+ * streams. All profiles borrow their Jackson buffers from one bounded {@link JsonBufferPool}
+ * instead of per-thread recyclers, see {@link #getBufferPool()}.
+ */
+public final class JsonProfile {
+
+  /**
+   * The buffer pool of every profile, declared first as the profiles use it
+   */
+  private static final JsonBufferPool BUFFER_POOL =
+      new JsonBufferPool(JsonBufferPool.DEFAULT_CAPACITY);
+
+  /**
+   * Untyped integers are read as {@link java.math.BigInteger} and floating-point numbers as
+   * {@link java.math.BigDecimal} so that no digit is lost, unknown properties are ignored
+   */
+  public static final JsonProfile PRECISE = new JsonProfile("precise", mapper -> {
+    mapper.configure(DeserializationFeature.USE_BIG_INTEGER_FOR_INTS, Boolean.TRUE);
+    mapper.configure(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS, Boolean.TRUE);
+  });
+
+  /**
+   * Untyped integers are read as {@link Integer} or {@link Long} and floating-point numbers as
+   * {@link Double}, and doubles are parsed and written with the fast algorithms of Jackson, for
+   * telemetry and other payloads where primitive width is enough. Unknown properties are ignored
+   */
+  public static final JsonProfile FAST_NUMERIC = new JsonProfile("fast-numeric",
+      factory -> factory.enable(StreamReadFeature.USE_FAST_DOUBLE_PARSER)
+          .enable(StreamWriteFeature.USE_FAST_DOUBLE_WRITER),
+      mapper -> {
+      });
+
+  /**
+   * Numbers are read as {@link #PRECISE}, unknown properties, duplicate keys, trailing tokens,
+   * nulls for primitives and floats for integers fail
+   */
+  public static final JsonProfile STRICT = new JsonProfile("strict", mapper -> {
+    mapper.configure(DeserializationFeature.USE_BIG_INTEGER_FOR_INTS, Boolean.TRUE);
+    mapper.configure(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS, Boolean.TRUE);
+    mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, Boolean.TRUE);
+    mapper.configure(DeserializationFeature.FAIL_ON_NULL_FOR_PRIMITIVES, Boolean.TRUE);
+    mapper.configure(DeserializationFeature.FAIL_ON_TRAILING_TOKENS, Boolean.TRUE);
+    mapper.configure(DeserializationFeature.FAIL_ON_READING_DUP_TREE_KEY, Boolean.TRUE);
+    mapper.configure(DeserializationFeature.ACCEPT_FLOAT_AS_INT, Boolean.FALSE);
+    mapper.configure(JsonParser.Feature.STRICT_DUPLICATE_DETECTION, Boolean.TRUE);
+  });
+
+  private final String name;
+
+  private final ObjectMapper objectMapper;
+
+  /**
+   * The readers of {@link #objectMapper}, keyed by value type
+   */
+  private final Map<Type, ObjectReader> readers = new ConcurrentHashMap<>();
+
+  /**
+   * The writers of {@link #objectMapper}, keyed by value type
+   */
+  private final Map<Type, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+  /**
+   * The writer of {@link #objectMapper} without value type
+   */
+  private final ObjectWriter genericWriter;
+
+  /**
+   * The writer of {@link #objectMapper} for {@link JsonValueWriter}s, flushes when its buffer
+   * fills rather than after every value, and closes the target
+   */
+  private final ObjectWriter sequenceWriter;
+
+  private final Consumer<ObjectMapper> customizer;
+
+  /**
+   * The binary codecs, created on first use
+   */
+  private final Map<BinaryJsonFormat, JsonBinaryCodec> binaryCodecs = new ConcurrentHashMap<>();
+
+  private JsonProfile(String name, Consumer<ObjectMapper> customizer) {
+    this(name, factory -> {
+    }, customizer);
+  }
+
+  /**
+   * Create a profile.
+   *
+   * @param name              the name of the profile
+   * @param factoryCustomizer customizes the JSON factory, for stream features
+   * @param customizer        customizes the mappers, JSON and binary
+   */
+  private JsonProfile(String name, Consumer<JsonFactoryBuilder> factoryCustomizer,
+      Consumer<ObjectMapper> customizer) {
+    this.name = name;
+    this.customizer = customizer;
+    final JsonFactoryBuilder factory = new JsonFactoryBuilder();
+    factoryCustomizer.accept(factory);
+    this.objectMapper = createObjectMapper(factory.recyclerPool(BUFFER_POOL).build());
+    this.genericWriter = objectMapper.writer();
+    this.sequenceWriter = genericWriter.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+        .with(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+        .withRootValueSeparator("\n");
+  }
+
+  /**
+   * Returns the buffer pool shared by all profiles, for instance to report its hit rate.
+   *
+   * @return the buffer pool
+   */
+  public static JsonBufferPool getBufferPool() {
+    return BUFFER_POOL;
+  }
+
+  /**
+   * Returns the codec of the binary format with the configuration of this profile, created once
+   * and cached.
+   *
+   * @param format the binary format
+   * @return the codec
+   */
+  public JsonBinaryCodec binary(BinaryJsonFormat format) {
+    Assert.notNull(format, "format must not be null");
+    return binaryCodecs.computeIfAbsent(format, key -> new JsonBinaryCodec(format,
+        createObjectMapper(format.createFactory(BUFFER_POOL))));
+  }
+
+  /**
+   * Returns the name of this profile.
+   *
+   * @return the name
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Serialize any Java value as a JSON String
+   *
+   * @param value any Java value
+   * @return JSON String
+   */
+  public String toJson(Object value) {
+    try {
+      return writerFor(value).writeValueAsString(value);
+    } catch (JsonProcessingException e) {
+      throw new JsonOperationException(e);
+    }
+  }
+
+  /**
+   * Serialize any Java value as UTF-8 encoded JSON bytes
+   *
+   * @param value any Java value
+   * @return JSON bytes
+   */
+  public byte[] toJsonBytes(Object value) {
+    try {
+      return writerFor(value).writeValueAsBytes(value);
+    } catch (JsonProcessingException e) {
+      throw new JsonOperationException(e);
+    }
+  }
+
+  /**
+   * Deserialize a JSON String as the given Java value
+   *
+   * @param value     JSON String
+   * @param valueType the given Java value type
+   * @param <T>       the type of the given Java value
+   * @return the given Java value
+   */
+  public <T> T toObject(String value, Class<T> valueType) {
+    try {
+      return readerFor(valueType).readValue(value);
+    } catch (JsonProcessingException e) {
+      throw new JsonOperationException(e);
+    }
+  }
+
+  /**
+   * Deserialize a JSON String as the given Java value
+   *
+   * @param value        JSON String
+   * @param valueTypeRef the given Java value type
+   * @param <T>          the type of the given Java value
+   * @return the given Java value
+   */
+  public <T> T toObject(String value, TypeReference<T> valueTypeRef) {
+    try {
+      return readerFor(valueTypeRef).readValue(value);
+    } catch (JsonProcessingException e) {
+      throw new JsonOperationException(e);
+    }
+  }
+
+  /**
+   * Deserialize UTF-8 encoded JSON bytes, or {@link BinaryJsonFormat} bytes told by their header,
+   * as the given Java value
+   *
+   * @param value     JSON bytes
+   * @param valueType the given Java value type
+   * @param <T>       the type of the given Java value
+   * @return the given Java value
+   */
+  public <T> T toObject(byte[] value, Class<T> valueType) {
+    Assert.notNull(value, "value must not be null");
+    final BinaryJsonFormat format = BinaryJsonFormat.detect(value);
+    return format == null ? read(readerFor(valueType), value)
+        : binary(format).toObject(value, valueType);
+  }
+
+  /**
+   * Deserialize UTF-8 encoded JSON bytes, or {@link BinaryJsonFormat} bytes told by their header,
+   * as the given Java value
+   *
+   * @param value        JSON bytes
+   * @param valueTypeRef the given Java value type
+   * @param <T>          the type of the given Java value
+   * @return the given Java value
+   */
+  public <T> T toObject(byte[] value, TypeReference<T> valueTypeRef) {
+    Assert.notNull(value, "value must not be null");
+    final BinaryJsonFormat format = BinaryJsonFormat.detect(value);
+    return format == null ? read(readerFor(valueTypeRef), value)
+        : binary(format).toObject(value, valueTypeRef);
+  }
+
+  /**
+   * Create a writer that reuses its generators across values, see {@link ReusableJsonWriter}.
+   *
+   * @return a new reusable writer
+   */
+  public ReusableJsonWriter newReusableWriter() {
+    return new ReusableJsonWriter(this);
+  }
+
+  /**
+   * Returns the reader of the given Java value type, created once and cached. The reader is
+   * immutable and thread-safe, and has already resolved the type and its deserializer.
+   *
+   * @param valueType the given Java value type
+   * @return the reader
+   */
+  public ObjectReader readerFor(Class<?> valueType) {
+    Assert.notNull(valueType, "valueType must not be null");
+    return readers.computeIfAbsent(valueType, type -> objectMapper.readerFor(valueType));
+  }
+
+  /**
+   * Returns the reader of the given Java value type, created once and cached. The reader is
+   * immutable and thread-safe, and has already resolved the type and its deserializer.
+   *
+   * @param valueTypeRef the given Java value type
+   * @return the reader
+   */
+  public ObjectReader readerFor(TypeReference<?> valueTypeRef) {
+    Assert.notNull(valueTypeRef, "valueTypeRef must not be null");
+    return readers.computeIfAbsent(valueTypeRef.getType(),
+        type -> objectMapper.readerFor(valueTypeRef));
+  }
+
+  /**
+   * Returns the writer of the given Java value type, created once and cached. The writer is
+   * immutable and thread-safe, and has already resolved the type and its serializer.
+   *
+   * @param valueType the given Java value type
+   * @return the writer
+   */
+  public ObjectWriter writerFor(Class<?> valueType) {
+    Assert.notNull(valueType, "valueType must not be null");
+    return writers.computeIfAbsent(valueType, type -> objectMapper.writerFor(valueType));
+  }
+
+  /**
+   * Returns the writer of the given Java value type, created once and cached. The writer is
+   * immutable and thread-safe, and has already resolved the type and its serializer.
+   *
+   * @param valueTypeRef the given Java value type
+   * @return the writer
+   */
+  public ObjectWriter writerFor(TypeReference<?> valueTypeRef) {
+    Assert.notNull(valueTypeRef, "valueTypeRef must not be null");
+    return writers.computeIfAbsent(valueTypeRef.getType(),
+        type -> objectMapper.writerFor(valueTypeRef));
+  }
+
+  /**
+   * Returns the writer of the given value of any runtime type. The untyped writer resolves the
+   * serializer of the runtime type through the bounded serializer cache of the mapper, so that
+   * runtime classes such as lambdas and proxies do not pile up in {@link #writers}.
+   *
+   * @param value any Java value
+   * @return the writer
+   */
+  ObjectWriter writerFor(Object value) {
+    return genericWriter;
+  }
+
+  /**
+   * Returns the writer of {@link JsonValueWriter}s.
+   *
+   * @return the writer
+   */
+  ObjectWriter sequenceWriter() {
+    return sequenceWriter;
+  }
+
+  /**
+   * Create a generator of root values without separator.
+   *
+   * @param out the output stream to write to
+   * @return the generator
+   * @throws IOException if the generator cannot be created
+   */
+  JsonGenerator createGenerator(OutputStream out) throws IOException {
+    return objectMapper.createGenerator(out).setRootValueSeparator(null);
+  }
+
+  /**
+   * Create a generator of root values without separator.
+   *
+   * @param writer the writer to write to
+   * @return the generator
+   * @throws IOException if the generator cannot be created
+   */
+  JsonGenerator createGenerator(Writer writer) throws IOException {
+    return objectMapper.createGenerator(writer).setRootValueSeparator(null);
+  }
+
+  @Override
+  public String toString() {
+    return "JsonProfile[" + name + "]";
+  }
+
+  private ObjectMapper createObjectMapper(JsonFactory factory) {
+    final ObjectMapper mapper = new ObjectMapper(factory);
+    mapper.setSerializationInclusion(Include.NON_NULL);
+    mapper.configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, Boolean.FALSE);
+    mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, Boolean.FALSE);
+    mapper.configure(JsonParser.Feature.AUTO_CLOSE_SOURCE, Boolean.FALSE);
+    mapper.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, Boolean.FALSE);
+    customizer.accept(mapper);
+    return mapper;
+  }
+
+  private static <T> T read(ObjectReader reader, byte[] value) {
+    try {
+      return reader.readValue(value);
+    } catch (IOException e) {
+      throw new JsonOperationException(e);
+    }
+  }
+
+}
@@ -1,27 +1,46 @@
 package cn.maiaimei.commons.lang.utils;
 
+import cn.maiaimei.commons.lang.exception.FileSystemOperationException;
 import cn.maiaimei.commons.lang.exception.JsonOperationException;
-import com.fasterxml.jackson.annotation.JsonInclude.Include;
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
 
 /**
  * Miscellaneous JSON utility methods.
+ * <p>
+ * Every method uses the {@link JsonProfile} of the current thread, {@link JsonProfile#PRECISE} by
+ * default, see {@link #setThreadProfile(JsonProfile)}.
  */
 public final class JsonUtils {
 
-  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+  /**
+   * The profile of the current thread, {@code null} for {@link JsonProfile#PRECISE}
+   */
+  private static final ThreadLocal<JsonProfile> THREAD_PROFILE = new ThreadLocal<>();
 
-  static {
-    OBJECT_MAPPER.setSerializationInclusion(Include.NON_NULL);
-    OBJECT_MAPPER.configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, Boolean.FALSE);
-    OBJECT_MAPPER.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, Boolean.FALSE);
-    OBJECT_MAPPER.configure(DeserializationFeature.USE_BIG_INTEGER_FOR_INTS, Boolean.TRUE);
-    OBJECT_MAPPER.configure(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS, Boolean.TRUE);
-  }
+  /**
+   * The parallel reader of {@link #readValuesParallel}
+   */
+  private static final ParallelJsonReader PARALLEL_READER = ParallelJsonReader.builder().build();
 
   /**
    * Private constructors ensure that classes cannot be instantiated
@@ -30,6 +49,52 @@ public final class JsonUtils {
     throw new UnsupportedOperationException();
   }
 
+  /**
+   * Returns the profile of the current thread, {@link JsonProfile#PRECISE} unless another one is
+   * set with {@link #setThreadProfile(JsonProfile)}.
+   *
+   * @return the profile used by the methods of this class
+   */
+  public static JsonProfile getProfile() {
+    final JsonProfile profile = THREAD_PROFILE.get();
+    return profile == null ? JsonProfile.PRECISE : profile;
+  }
+
+  /**
+   * Set the profile of the current thread, pass {@code null} to restore the default
+   * {@link JsonProfile#PRECISE}.
+   *
+   * @param profile the profile to use
+   */
+  public static void setThreadProfile(@Nullable JsonProfile profile) {
+    if (profile == null) {
+      THREAD_PROFILE.remove();
+    } else {
+      THREAD_PROFILE.set(profile);
+    }
+  }
+
+  /**
+   * Run the action with the given profile as the profile of the current thread, the previous one
+   * is restored afterwards.
+   *
+   * @param profile the profile to use
+   * @param action  the action to run
+   * @param <T>     the type of the result
+   * @return the result of the action
+   */
+  public static <T> T withProfile(JsonProfile profile, Supplier<T> action) {
+    Assert.notNull(profile, "profile must not be null");
+    Assert.notNull(action, "action must not be null");
+    final JsonProfile previous = THREAD_PROFILE.get();
+    THREAD_PROFILE.set(profile);
+    try {
+      return action.get();
+    } finally {
+      setThreadProfile(previous);
+    }
+  }
+
   /**
    * Serialize any Java value as a JSON String
    *
@@ -37,11 +102,7 @@ public final class JsonUtils {
    * @return JSON String
    */
   public static String toJson(Object value) {
-    try {
-      return OBJECT_MAPPER.writeValueAsString(value);
-    } catch (JsonProcessingException e) {
-      throw new JsonOperationException(e);
-    }
+    return getProfile().toJson(value);
   }
 
   /**
@@ -53,11 +114,7 @@ public final class JsonUtils {
    * @return the given Java value
    */
   public static <T> T toObject(String value, Class<T> valueType) {
-    try {
-      return OBJECT_MAPPER.readValue(value, valueType);
-    } catch (JsonProcessingException e) {
-      throw new JsonOperationException(e);
-    }
+    return getProfile().toObject(value, valueType);
   }
 
   /**
@@ -69,11 +126,517 @@ public final class JsonUtils {
    * @return the given Java value
    */
   public static <T> T toObject(String value, TypeReference<T> valueTypeRef) {
+    return getProfile().toObject(value, valueTypeRef);
+  }
+
+  /**
+   * Serialize any Java value as UTF-8 encoded JSON bytes
+   *
+   * @param value any Java value
+   * @return JSON bytes
+   */
+  public static byte[] toJsonBytes(Object value) {
+    return getProfile().toJsonBytes(value);
+  }
+
+  /**
+   * Serialize any Java value as UTF-8 encoded JSON into the output stream. The output stream is
+   * flushed but not closed.
+   *
+   * @param value any Java value
+   * @param out   the output stream to write to
+   */
+  public static void writeTo(Object value, OutputStream out) {
+    Assert.notNull(out, "out must not be null");
     try {
-      return OBJECT_MAPPER.readValue(value, valueTypeRef);
-    } catch (JsonProcessingException e) {
+      getProfile().writerFor(value).writeValue(out, value);
+    } catch (IOException e) {
       throw new JsonOperationException(e);
     }
   }
 
+  /**
+   * Serialize any Java value as UTF-8 encoded JSON into the buffer, starting at its current
+   * position. Direct buffers are written without copying the JSON onto the heap first.
+   *
+   * @param value  any Java value
+   * @param buffer the buffer to put to
+   * @return the given buffer
+   * @throws java.nio.BufferOverflowException if the buffer has insufficient space remaining
+   */
+  public static ByteBuffer writeTo(Object value, ByteBuffer buffer) {
+    Assert.notNull(buffer, "buffer must not be null");
+    writeTo(value, new ByteBufferBackedOutputStream(buffer));
+    return buffer;
+  }
+
+  /**
+   * Deserialize UTF-8 encoded JSON bytes, or {@link BinaryJsonFormat} bytes told by their header,
+   * as the given Java value
+   *
+   * @param value     JSON bytes
+   * @param valueType the given Java value type
+   * @param <T>       the type of the given Java value
+   * @return the given Java value
+   */
+  public static <T> T toObject(byte[] value, Class<T> valueType) {
+    return getProfile().toObject(value, valueType);
+  }
+
+  /**
+   * Deserialize UTF-8 encoded JSON bytes, or {@link BinaryJsonFormat} bytes told by their header,
+   * as the given Java value
+   *
+   * @param value        JSON bytes
+   * @param valueTypeRef the given Java value type
+   * @param <T>          the type of the given Java value
+   * @return the given Java value
+   */
+  public static <T> T toObject(byte[] value, TypeReference<T> valueTypeRef) {
+    return getProfile().toObject(value, valueTypeRef);
+  }
+
+  /**
+   * Deserialize JSON from the input stream as the given Java value. The input stream is not
+   * closed.
+   *
+   * @param in        the input stream to read from
+   * @param valueType the given Java value type
+   * @param <T>       the type of the given Java value
+   * @return the given Java value
+   */
+  public static <T> T toObject(InputStream in, Class<T> valueType) {
+    return read(readerFor(valueType), in);
+  }
+
+  /**
+   * Deserialize JSON from the input stream as the given Java value. The input stream is not
+   * closed.
+   *
+   * @param in           the input stream to read from
+   * @param valueTypeRef the given Java value type
+   * @param <T>          the type of the given Java value
+   * @return the given Java value
+   */
+  public static <T> T toObject(InputStream in, TypeReference<T> valueTypeRef) {
+    return read(readerFor(valueTypeRef), in);
+  }
+
+  /**
+   * Deserialize the UTF-8 encoded JSON, or {@link BinaryJsonFormat} bytes told by their header,
+   * between the position and the limit of the buffer as the given Java value. Buffers backed by
+   * an accessible array are parsed in place, other buffers, such as direct or read-only ones, are
+   * copied chunk by chunk into the parser's input buffer. Either way, the position is set to the
+   * limit once the value is read.
+   *
+   * @param buffer    the buffer to read from
+   * @param valueType the given Java value type
+   * @param <T>       the type of the given Java value
+   * @return the given Java value
+   */
+  public static <T> T toObject(ByteBuffer buffer, Class<T> valueType) {
+    Assert.notNull(buffer, "buffer must not be null");
+    final BinaryJsonFormat format = BinaryJsonFormat.detect(buffer);
+    return read(format == null ? readerFor(valueType) : binary(format).readerFor(valueType),
+        buffer);
+  }
+
+  /**
+   * Deserialize the UTF-8 encoded JSON, or {@link BinaryJsonFormat} bytes told by their header,
+   * between the position and the limit of the buffer as the given Java value. Buffers backed by
+   * an accessible array are parsed in place, other buffers, such as direct or read-only ones, are
+   * copied chunk by chunk into the parser's input buffer. Either way, the position is set to the
+   * limit once the value is read.
+   *
+   * @param buffer       the buffer to read from
+   * @param valueTypeRef the given Java value type
+   * @param <T>          the type of the given Java value
+   * @return the given Java value
+   */
+  public static <T> T toObject(ByteBuffer buffer, TypeReference<T> valueTypeRef) {
+    Assert.notNull(buffer, "buffer must not be null");
+    final BinaryJsonFormat format = BinaryJsonFormat.detect(buffer);
+    return read(format == null ? readerFor(valueTypeRef) : binary(format).readerFor(valueTypeRef),
+        buffer);
+  }
+
+  /**
+   * Iterate the values of a top-level JSON array or of newline-delimited JSON in the input stream,
+   * the input stream is closed when the iterator is closed.
+   *
+   * @param in        the input stream to read from
+   * @param valueType the given Java value type
+   * @param <T>       the type of the given Java value
+   * @return the iterator of values
+   */
+  public static <T> JsonValueIterator<T> readValues(InputStream in, Class<T> valueType) {
+    return readValues(readerFor(valueType), in);
+  }
+
+  /**
+   * Iterate the values of a top-level JSON array or of newline-delimited JSON in the input stream,
+   * the input stream is closed when the iterator is closed.
+   *
+   * @param in           the input stream to read from
+   * @param valueTypeRef the given Java value type
+   * @param <T>          the type of the given Java value
+   * @return the iterator of values
+   */
+  public static <T> JsonValueIterator<T> readValues(InputStream in,
+      TypeReference<T> valueTypeRef) {
+    return readValues(readerFor(valueTypeRef), in);
+  }
+
+  /**
+   * Iterate the values of a top-level JSON array or of newline-delimited JSON in the file, the
+   * file is closed when the iterator is closed.
+   *
+   * @param path      the file to read from
+   * @param valueType the given Java value type
+   * @param <T>       the type of the given Java value
+   * @return the iterator of values
+   */
+  public static <T> JsonValueIterator<T> readValues(Path path, Class<T> valueType) {
+    return readValues(readerFor(valueType), newInputStream(path));
+  }
+
+  /**
+   * Iterate the values of a top-level JSON array or of newline-delimited JSON in the file, the
+   * file is closed when the iterator is closed.
+   *
+   * @param path         the file to read from
+   * @param valueTypeRef the given Java value type
+   * @param <T>          the type of the given Java value
+   * @return the iterator of values
+   */
+  public static <T> JsonValueIterator<T> readValues(Path path, TypeReference<T> valueTypeRef) {
+    return readValues(readerFor(valueTypeRef), newInputStream(path));
+  }
+
+  /**
+   * Iterate the values of a top-level JSON array or of newline-delimited JSON in the file, the
+   * file is closed when the iterator is closed.
+   *
+   * @param file      the file to read from
+   * @param valueType the given Java value type
+   * @param <T>       the type of the given Java value
+   * @return the iterator of values
+   */
+  public static <T> JsonValueIterator<T> readValues(File file, Class<T> valueType) {
+    Assert.notNull(file, "file must not be null");
+    return readValues(file.toPath(), valueType);
+  }
+
+  /**
+   * Iterate the values of a top-level JSON array or of newline-delimited JSON in the file, the
+   * file is closed when the iterator is closed.
+   *
+   * @param file         the file to read from
+   * @param valueTypeRef the given Java value type
+   * @param <T>          the type of the given Java value
+   * @return the iterator of values
+   */
+  public static <T> JsonValueIterator<T> readValues(File file, TypeReference<T> valueTypeRef) {
+    Assert.notNull(file, "file must not be null");
+    return readValues(file.toPath(), valueTypeRef);
+  }
+
+  /**
+   * Parse the newline-delimited JSON file on the {@link java.util.concurrent.ForkJoinPool common
+   * pool} in chunks of {@link ParallelJsonReader#DEFAULT_CHUNK_SIZE}, values are returned in file
+   * order and the file is closed when the stream is closed. Use {@link ParallelJsonReader} for
+   * another executor, chunk size or unordered values.
+   *
+   * @param path      the file to read from
+   * @param valueType the given Java value type
+   * @param <T>       the type of the given Java value
+   * @return the stream of values
+   */
+  public static <T> Stream<T> readValuesParallel(Path path, Class<T> valueType) {
+    return PARALLEL_READER.readValues(path, valueType);
+  }
+
+  /**
+   * Parse the newline-delimited JSON file on the {@link java.util.concurrent.ForkJoinPool common
+   * pool} in chunks of {@link ParallelJsonReader#DEFAULT_CHUNK_SIZE}, values are returned in file
+   * order and the file is closed when the stream is closed. Use {@link ParallelJsonReader} for
+   * another executor, chunk size or unordered values.
+   *
+   * @param path         the file to read from
+   * @param valueTypeRef the given Java value type
+   * @param <T>          the type of the given Java value
+   * @return the stream of values
+   */
+  public static <T> Stream<T> readValuesParallel(Path path, TypeReference<T> valueTypeRef) {
+    return PARALLEL_READER.readValues(path, valueTypeRef);
+  }
+
+  /**
+   * Open a writer of JSON values to the output stream, the output stream is closed when the writer
+   * is closed.
+   *
+   * @param out     the output stream to write to
+   * @param asArray {@code true} to write a top-level JSON array, {@code false} to write
+   *                newline-delimited JSON
+   * @return the writer of values
+   */
+  public static JsonValueWriter writeValues(OutputStream out, boolean asArray) {
+    Assert.notNull(out, "out must not be null");
+    try {
+      final ObjectWriter writer = getProfile().sequenceWriter();
+      return new JsonValueWriter(asArray ? writer.writeValuesAsArray(out)
+          : writer.writeValues(out));
+    } catch (IOException e) {
+      closeQuietly(out);
+      throw new JsonOperationException(e);
+    }
+  }
+
+  /**
+   * Open a writer of JSON values to the file, the file is created or truncated, and closed when
+   * the writer is closed.
+   *
+   * @param path    the file to write to
+   * @param asArray {@code true} to write a top-level JSON array, {@code false} to write
+   *                newline-delimited JSON
+   * @return the writer of values
+   */
+  public static JsonValueWriter writeValues(Path path, boolean asArray) {
+    Assert.notNull(path, "path must not be null");
+    try {
+      return writeValues(Files.newOutputStream(path), asArray);
+    } catch (IOException e) {
+      throw new FileSystemOperationException(e);
+    }
+  }
+
+  /**
+   * Open a writer of JSON values to the file, the file is created or truncated, and closed when
+   * the writer is closed.
+   *
+   * @param file    the file to write to
+   * @param asArray {@code true} to write a top-level JSON array, {@code false} to write
+   *                newline-delimited JSON
+   * @return the writer of values
+   */
+  public static JsonValueWriter writeValues(File file, boolean asArray) {
+    Assert.notNull(file, "file must not be null");
+    return writeValues(file.toPath(), asArray);
+  }
+
+  /**
+   * Extract the values of the paths from the JSON String without binding the whole document, see
+   * {@link JsonPathExtractor} for the path syntax. Compile the paths with
+   * {@link JsonPathExtractor#compile(String...)} to reuse them across documents.
+   *
+   * @param json  the JSON String
+   * @param paths the paths to extract, such as {@code order.items[0].sku}
+   * @return the values keyed by path, paths that are not found are absent
+   */
+  public static Map<String, Object> extract(String json, String... paths) {
+    return JsonPathExtractor.compile(paths).extract(json);
+  }
+
+  /**
+   * Extract the values of the paths from the UTF-8 encoded JSON bytes without binding the whole
+   * document, see {@link JsonPathExtractor} for the path syntax.
+   *
+   * @param json  the JSON bytes
+   * @param paths the paths to extract, such as {@code order.items[0].sku}
+   * @return the values keyed by path, paths that are not found are absent
+   */
+  public static Map<String, Object> extract(byte[] json, String... paths) {
+    return JsonPathExtractor.compile(paths).extract(json);
+  }
+
+  /**
+   * Extract the values of the paths from the JSON in the input stream without binding the whole
+   * document, see {@link JsonPathExtractor} for the path syntax. The input stream is not closed.
+   *
+   * @param in    the input stream to read from
+   * @param paths the paths to extract, such as {@code order.items[0].sku}
+   * @return the values keyed by path, paths that are not found are absent
+   */
+  public static Map<String, Object> extract(InputStream in, String... paths) {
+    return JsonPathExtractor.compile(paths).extract(in);
+  }
+
+  /**
+   * Serialize any Java value in the binary format, read it back with
+   * {@link #toObject(byte[], Class)}
+   *
+   * @param value  any Java value
+   * @param format the binary format
+   * @return the bytes
+   */
+  public static byte[] toBytes(Object value, BinaryJsonFormat format) {
+    return getProfile().binary(format).toBytes(value);
+  }
+
+  /**
+   * Returns the codec of the binary format with the profile of the current thread.
+   *
+   * @param format the binary format
+   * @return the codec
+   */
+  public static JsonBinaryCodec binary(BinaryJsonFormat format) {
+    return getProfile().binary(format);
+  }
+
+  /**
+   * Create a non-blocking decoder of the root-level JSON values fed to it in chunks, such as from
+   * an NIO channel, see {@link JsonFeedDecoder}.
+   *
+   * @param valueType the given Java value type
+   * @param consumer  the callback receiving each value as soon as it is complete
+   * @param <T>       the type of the given Java value
+   * @return a new decoder
+   */
+  public static <T> JsonFeedDecoder<T> newFeedDecoder(Class<T> valueType,
+      Consumer<? super T> consumer) {
+    return new JsonFeedDecoder<>(readerFor(valueType), consumer);
+  }
+
+  /**
+   * Create a non-blocking decoder of the root-level JSON values fed to it in chunks, such as from
+   * an NIO channel, see {@link JsonFeedDecoder}.
+   *
+   * @param valueTypeRef the given Java value type
+   * @param consumer     the callback receiving each value as soon as it is complete
+   * @param <T>          the type of the given Java value
+   * @return a new decoder
+   */
+  public static <T> JsonFeedDecoder<T> newFeedDecoder(TypeReference<T> valueTypeRef,
+      Consumer<? super T> consumer) {
+    return new JsonFeedDecoder<>(readerFor(valueTypeRef), consumer);
+  }
+
+  /**
+   * Create a writer that reuses its generators across values with the profile of the current
+   * thread, see {@link ReusableJsonWriter}.
+   *
+   * @return a new reusable writer
+   */
+  public static ReusableJsonWriter newReusableWriter() {
+    return getProfile().newReusableWriter();
+  }
+
+  /**
+   * Returns the pool of Jackson buffers shared by all profiles, for instance to report its hit
+   * rate.
+   *
+   * @return the buffer pool
+   */
+  public static JsonBufferPool getBufferPool() {
+    return JsonProfile.getBufferPool();
+  }
+
+  /**
+   * Returns the reader of the given Java value type, created once and cached. The reader is
+   * immutable and thread-safe, and has already resolved the type and its deserializer.
+   *
+   * @param valueType the given Java value type
+   * @return the reader
+   */
+  public static ObjectReader readerFor(Class<?> valueType) {
+    return getProfile().readerFor(valueType);
+  }
+
+  /**
+   * Returns the reader of the given Java value type, created once and cached. The reader is
+   * immutable and thread-safe, and has already resolved the type and its deserializer.
+   *
+   * @param valueTypeRef the given Java value type
+   * @return the reader
+   */
+  public static ObjectReader readerFor(TypeReference<?> valueTypeRef) {
+    return getProfile().readerFor(valueTypeRef);
+  }
+
+  /**
+   * Returns the writer of the given Java value type, created once and cached. The writer is
+   * immutable and thread-safe, and has already resolved the type and its serializer.
+   *
+   * @param valueType the given Java value type
+   * @return the writer
+   */
+  public static ObjectWriter writerFor(Class<?> valueType) {
+    return getProfile().writerFor(valueType);
+  }
+
+  /**
+   * Returns the writer of the given Java value type, created once and cached. The writer is
+   * immutable and thread-safe, and has already resolved the type and its serializer.
+   *
+   * @param valueTypeRef the given Java value type
+   * @return the writer
+   */
+  public static ObjectWriter writerFor(TypeReference<?> valueTypeRef) {
+    return getProfile().writerFor(valueTypeRef);
+  }
+
+  private static <T> T read(ObjectReader reader, InputStream in) {
+    Assert.notNull(in, "in must not be null");
+    try {
+      return reader.readValue(in);
+    } catch (IOException e) {
+      throw new JsonOperationException(e);
+    }
+  }
+
+  private static <T> T read(ObjectReader reader, ByteBuffer buffer) {
+    Assert.notNull(buffer, "buffer must not be null");
+    try {
+      final T value = buffer.hasArray()
+          ? reader.readValue(buffer.array(), buffer.arrayOffset() + buffer.position(),
+          buffer.remaining())
+          : reader.readValue(new ByteBufferBackedInputStream(buffer));
+      // through Buffer, ByteBuffer#position(int) does not exist on Java 8
+      ((Buffer) buffer).position(buffer.limit());
+      return value;
+    } catch (IOException e) {
+      throw new JsonOperationException(e);
+    }
+  }
+
+  private static <T> JsonValueIterator<T> readValues(ObjectReader reader, InputStream in) {
+    Assert.notNull(in, "in must not be null");
+    final JsonParser parser;
+    try {
+      parser = reader.createParser(in);
+    } catch (IOException e) {
+      closeQuietly(in);
+      throw new JsonOperationException(e);
+    }
+    try {
+      return new JsonValueIterator<>(parser, reader, in);
+    } catch (IOException e) {
+      // the constructor reads the first token, release the buffers of the parser too
+      closeQuietly(parser);
+      closeQuietly(in);
+      throw new JsonOperationException(e);
+    } catch (RuntimeException e) {
+      closeQuietly(parser);
+      closeQuietly(in);
+      throw e;
+    }
+  }
+
+  private static InputStream newInputStream(Path path) {
+    Assert.notNull(path, "path must not be null");
+    try {
+      return Files.newInputStream(path);
+    } catch (IOException e) {
+      throw new FileSystemOperationException(e);
+    }
+  }
+
+  private static void closeQuietly(Closeable closeable) {
+    try {
+      closeable.close();
+    } catch (IOException e) {
+      // ignore, the original exception is thrown
+    }
+  }
+
 }
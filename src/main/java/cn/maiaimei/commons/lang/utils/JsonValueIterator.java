@@ -0,0 +1,135 @@
+package cn.maiaimei.commons.lang.utils;
+
+import cn.maiaimei.commons.lang.exception.JsonOperationException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Iterates the values of a JSON source one at a time, so that memory stays flat however large the
+ * source is. The source is either a top-level JSON array, whose elements are iterated, or a
+ * sequence of root-level values such as newline-delimited JSON. A source starting with an array is
+ * read as a single array, content after its closing bracket, such as newline-delimited JSON whose
+ * values are arrays, fails the iteration with a {@link JsonOperationException}.
+ * <p>
+ * The source is closed when the iterator is exhausted, fails or is closed, use it in a
+ * try-with-resources statement. Instances are not thread-safe.
+ *
+ * @param <T> the type of the values
+ */
+public final class JsonValueIterator<T> implements Iterator<T>, Closeable {
+
+  private final JsonParser parser;
+  private final ObjectReader reader;
+  private final Closeable source;
+
+  /**
+   * Whether the source is a top-level JSON array
+   */
+  private final boolean array;
+
+  /**
+   * The first token of the next value, {@code null} at the end of the source
+   */
+  private JsonToken token;
+
+  private boolean closed;
+
+  JsonValueIterator(JsonParser parser, ObjectReader reader, Closeable source) throws IOException {
+    this.parser = parser;
+    this.reader = reader;
+    this.source = source;
+    this.token = parser.nextToken();
+    this.array = token == JsonToken.START_ARRAY;
+    if (array) {
+      token = parser.nextToken();
+    }
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (closed) {
+      return false;
+    }
+    if (token == null) {
+      close();
+      return false;
+    }
+    if (array && token == JsonToken.END_ARRAY) {
+      checkEndOfSource();
+      return false;
+    }
+    return true;
+  }
+
+  @Override
+  public T next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    try {
+      final T value = reader.readValue(parser);
+      token = parser.nextToken();
+      return value;
+    } catch (IOException e) {
+      close();
+      throw new JsonOperationException(e);
+    }
+  }
+
+  /**
+   * Close the iterator at the end of the top-level array, failing if anything follows the array.
+   */
+  private void checkEndOfSource() {
+    final JsonToken trailing;
+    try {
+      trailing = parser.nextToken();
+    } catch (IOException e) {
+      close();
+      throw new JsonOperationException(e);
+    }
+    close();
+    if (trailing != null) {
+      throw new JsonOperationException(
+          "Unexpected " + trailing + " after the top-level array, a source starting with an array "
+              + "must hold a single array");
+    }
+  }
+
+  /**
+   * Returns a sequential stream of the remaining values, closing the stream closes this iterator.
+   *
+   * @return the stream of values
+   */
+  public Stream<T> stream() {
+    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED),
+        false).onClose(this::close);
+  }
+
+  /**
+   * Close the parser and the source, does nothing if they are already closed.
+   */
+  @Override
+  public void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    token = null;
+    try {
+      parser.close();
+      source.close();
+    } catch (IOException e) {
+      throw new JsonOperationException(e);
+    }
+  }
+
+}
@@ -0,0 +1,89 @@
+package cn.maiaimei.commons.lang.utils;
+
+import cn.maiaimei.commons.lang.exception.JsonOperationException;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.util.stream.Stream;
+
+/**
+ * Writes JSON values one at a time, either as the elements of a top-level JSON array or as
+ * newline-delimited JSON. Values are buffered and written to the target as the buffer fills,
+ * serializers are resolved once per value type.
+ * <p>
+ * Closing the writer ends the array and closes the target, use it in a try-with-resources
+ * statement. Instances are not thread-safe.
+ */
+public final class JsonValueWriter implements Closeable, Flushable {
+
+  private final SequenceWriter writer;
+
+  JsonValueWriter(SequenceWriter writer) {
+    this.writer = writer;
+  }
+
+  /**
+   * Write a value.
+   *
+   * @param value any Java value
+   * @return this writer
+   */
+  public JsonValueWriter write(Object value) {
+    try {
+      writer.write(value);
+      return this;
+    } catch (IOException e) {
+      throw new JsonOperationException(e);
+    }
+  }
+
+  /**
+   * Write every value of the iterable.
+   *
+   * @param values the values to write
+   * @return this writer
+   */
+  public JsonValueWriter writeAll(Iterable<?> values) {
+    for (Object value : values) {
+      write(value);
+    }
+    return this;
+  }
+
+  /**
+   * Write every value of the stream, the stream is not closed.
+   *
+   * @param values the values to write
+   * @return this writer
+   */
+  public JsonValueWriter writeAll(Stream<?> values) {
+    values.forEachOrdered(this::write);
+    return this;
+  }
+
+  /**
+   * Flush the buffered values to the target.
+   */
+  @Override
+  public void flush() {
+    try {
+      writer.flush();
+    } catch (IOException e) {
+      throw new JsonOperationException(e);
+    }
+  }
+
+  /**
+   * End the array if any, flush the buffered values and close the target.
+   */
+  @Override
+  public void close() {
+    try {
+      writer.close();
+    } catch (IOException e) {
+      throw new JsonOperationException(e);
+    }
+  }
+
+}
@@ -0,0 +1,254 @@
+package cn.maiaimei.commons.lang.utils;
+
+import cn.maiaimei.commons.lang.constants.NumberConstants;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.Arrays;
+
+/**
+ * Reads the lines of a channel or a buffer, decoding the bytes incrementally into a reusable char
+ * array. Lines end with {@code \n}, {@code \r} or {@code \r\n}, which are not part of the line.
+ * Malformed input is replaced, as {@link String#String(byte[], Charset)} does.
+ * <p>
+ * {@link #readLine()} returns a view of the char array, valid until the next call, so memory stays
+ * constant whatever the size of the input, only a line longer than the array grows it. Instances
+ * are not thread-safe.
+ */
+final class LineReader implements Closeable {
+
+  /**
+   * The default number of bytes read at a time
+   */
+  static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+  /**
+   * The channel to read from, {@code null} if all the bytes are in {@link #bytes}
+   */
+  private final ReadableByteChannel channel;
+
+  private final CharsetDecoder decoder;
+
+  /**
+   * The bytes read and not decoded yet, in read mode
+   */
+  private final ByteBuffer bytes;
+
+  private final LineView view = new LineView();
+
+  private char[] chars;
+
+  /**
+   * The start of the chars not returned yet
+   */
+  private int start;
+
+  /**
+   * The index to look for the next line terminator from
+   */
+  private int scan;
+
+  /**
+   * The end of the decoded chars
+   */
+  private int end;
+
+  /**
+   * Whether the channel is exhausted
+   */
+  private boolean endOfInput;
+
+  /**
+   * Whether every byte has been decoded, only the decoder flush is left
+   */
+  private boolean decoded;
+
+  /**
+   * Whether the decoder is flushed, no more chars will come
+   */
+  private boolean flushed;
+
+  /**
+   * Create a reader of the channel.
+   *
+   * @param channel    the channel to read from
+   * @param charset    the charset of the bytes
+   * @param bufferSize the number of bytes read at a time
+   */
+  LineReader(ReadableByteChannel channel, Charset charset, int bufferSize) {
+    this.channel = channel;
+    this.decoder = newDecoder(charset);
+    this.bytes = ByteBuffer.allocate(bufferSize);
+    // through Buffer, the ByteBuffer overrides do not exist on Java 8
+    ((Buffer) bytes).flip();
+    this.chars = new char[bufferSize];
+  }
+
+  /**
+   * Create a reader of the bytes between the position and the limit of the buffer, the buffer
+   * itself is not modified.
+   *
+   * @param buffer  the buffer to read from
+   * @param charset the charset of the bytes
+   */
+  LineReader(ByteBuffer buffer, Charset charset) {
+    this.channel = null;
+    this.decoder = newDecoder(charset);
+    this.bytes = buffer.slice();
+    this.chars = new char[Math.max(NumberConstants.SIXTEEN,
+        Math.min(bytes.remaining(), DEFAULT_BUFFER_SIZE))];
+    this.endOfInput = true;
+  }
+
+  /**
+   * Returns the next line.
+   *
+   * @return a view of the next line, valid until the next call, {@code null} at the end
+   * @throws IOException if the channel cannot be read
+   */
+  CharSequence readLine() throws IOException {
+    while (true) {
+      final int terminator = findTerminator();
+      if (terminator >= NumberConstants.ZERO) {
+        view.set(start, terminator - start);
+        start = chars[terminator] == '\r' && terminator + 1 < end
+            && chars[terminator + 1] == '\n' ? terminator + 2 : terminator + 1;
+        scan = start;
+        return view;
+      }
+      if (flushed) {
+        if (start == end) {
+          return null;
+        }
+        view.set(start, end - start);
+        start = end;
+        scan = end;
+        return view;
+      }
+      fill();
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (channel != null) {
+      channel.close();
+    }
+  }
+
+  /**
+   * Returns the index of the next line terminator, or -1 if more chars are needed to find it.
+   */
+  private int findTerminator() {
+    for (int i = scan; i < end; i++) {
+      final char c = chars[i];
+      if (c == '\n' || c == '\r') {
+        if (c == '\r' && i + 1 == end && !flushed) {
+          // a \n may follow in the chars to come
+          scan = i;
+          return -1;
+        }
+        return i;
+      }
+    }
+    scan = end;
+    return -1;
+  }
+
+  /**
+   * Decode more chars, moving the pending ones to the front of the array first.
+   */
+  private void fill() throws IOException {
+    if (start > NumberConstants.ZERO) {
+      System.arraycopy(chars, start, chars, NumberConstants.ZERO, end - start);
+      end -= start;
+      scan -= start;
+      start = NumberConstants.ZERO;
+    }
+    if (end == chars.length) {
+      chars = Arrays.copyOf(chars, chars.length * NumberConstants.TWO);
+    }
+    if (!endOfInput) {
+      bytes.compact();
+      final int read = channel.read(bytes);
+      ((Buffer) bytes).flip();
+      endOfInput = read < NumberConstants.ZERO;
+    }
+    while (true) {
+      final CharBuffer out = CharBuffer.wrap(chars, end, chars.length - end);
+      CoderResult result = CoderResult.UNDERFLOW;
+      if (!decoded) {
+        result = decoder.decode(bytes, out, endOfInput);
+        decoded = endOfInput && result.isUnderflow();
+      }
+      if (decoded) {
+        result = decoder.flush(out);
+        flushed = result.isUnderflow();
+      }
+      if (result.isError()) {
+        result.throwException();
+      }
+      final boolean progress = out.position() > end;
+      end = out.position();
+      if (!result.isOverflow() || progress) {
+        return;
+      }
+      // the next character does not fit, such as a surrogate pair in the last slot
+      chars = Arrays.copyOf(chars, chars.length * NumberConstants.TWO);
+    }
+  }
+
+  private static CharsetDecoder newDecoder(Charset charset) {
+    return charset.newDecoder()
+        .onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+  }
+
+  /**
+   * A view of a line in the char array.
+   */
+  private final class LineView implements CharSequence {
+
+    private int offset;
+    private int length;
+
+    void set(int offset, int length) {
+      this.offset = offset;
+      this.length = length;
+    }
+
+    @Override
+    public int length() {
+      return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+      if (index < NumberConstants.ZERO || index >= length) {
+        throw new IndexOutOfBoundsException("index " + index + ", length " + length);
+      }
+      return chars[offset + index];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+      if (start < NumberConstants.ZERO || end > length || start > end) {
+        throw new IndexOutOfBoundsException("start " + start + ", end " + end);
+      }
+      return new String(chars, offset + start, end - start);
+    }
+
+    @Override
+    public String toString() {
+      return new String(chars, offset, length);
+    }
+  }
+
+}
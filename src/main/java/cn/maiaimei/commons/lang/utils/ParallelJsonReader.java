@@ -0,0 +1,524 @@
+package cn.maiaimei.commons.lang.utils;
+
+import cn.maiaimei.commons.lang.constants.NumberConstants;
+import cn.maiaimei.commons.lang.exception.FileSystemOperationException;
+import cn.maiaimei.commons.lang.exception.JsonOperationException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import org.springframework.util.Assert;
+
+/**
+ * Parses newline-delimited JSON on several threads. The source, a file or a buffer such as a
+ * memory-mapped region, is split on line boundaries into chunks of about {@code chunkSize} bytes,
+ * the chunks are read and parsed in parallel on the executor and their values are returned as a
+ * stream, either in source order or in the order the chunks complete.
+ * <p>
+ * Chunks are submitted as the stream is consumed and at most {@code maxChunksInFlight} chunks are
+ * parsed or waiting to be consumed at a time, so memory stays bounded by about
+ * {@code chunkSize * maxChunksInFlight} bytes of source plus their values, whatever the size of
+ * the source. Instances are immutable and thread-safe.
+ */
+public final class ParallelJsonReader {
+
+  /**
+   * The default chunk size, 4 MiB
+   */
+  public static final int DEFAULT_CHUNK_SIZE = 4 << 20;
+
+  /**
+   * The size of the blocks read to find the end of a chunk
+   */
+  private static final int SCAN_BLOCK_SIZE = 8192;
+
+  private static final byte NEWLINE = '\n';
+
+  private final Executor executor;
+  private final int chunkSize;
+  private final int maxChunksInFlight;
+  private final boolean ordered;
+
+  private ParallelJsonReader(Builder builder) {
+    this.executor = builder.executor;
+    this.chunkSize = builder.chunkSize;
+    this.maxChunksInFlight = builder.maxChunksInFlight > NumberConstants.ZERO
+        ? builder.maxChunksInFlight : NumberConstants.TWO * parallelismOf(builder.executor);
+    this.ordered = builder.ordered;
+  }
+
+  /**
+   * Returns an instance of {@link Builder}
+   *
+   * @return an instance of {@link Builder}
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Parse the newline-delimited JSON file, the file is closed when the stream is closed.
+   *
+   * @param path      the file to read from
+   * @param valueType the given Java value type
+   * @param <T>       the type of the given Java value
+   * @return the stream of values
+   */
+  public <T> Stream<T> readValues(Path path, Class<T> valueType) {
+    return readValues(new FileChunkSource(path), JsonUtils.readerFor(valueType));
+  }
+
+  /**
+   * Parse the newline-delimited JSON file, the file is closed when the stream is closed.
+   *
+   * @param path         the file to read from
+   * @param valueTypeRef the given Java value type
+   * @param <T>          the type of the given Java value
+   * @return the stream of values
+   */
+  public <T> Stream<T> readValues(Path path, TypeReference<T> valueTypeRef) {
+    return readValues(new FileChunkSource(path), JsonUtils.readerFor(valueTypeRef));
+  }
+
+  /**
+   * Parse the newline-delimited JSON between the position and the limit of the buffer, such as a
+   * memory-mapped region. The buffer must not be modified until the stream is closed, its position
+   * is not changed.
+   *
+   * @param buffer    the buffer to read from
+   * @param valueType the given Java value type
+   * @param <T>       the type of the given Java value
+   * @return the stream of values
+   */
+  public <T> Stream<T> readValues(ByteBuffer buffer, Class<T> valueType) {
+    return readValues(new BufferChunkSource(buffer), JsonUtils.readerFor(valueType));
+  }
+
+  /**
+   * Parse the newline-delimited JSON between the position and the limit of the buffer, such as a
+   * memory-mapped region. The buffer must not be modified until the stream is closed, its position
+   * is not changed.
+   *
+   * @param buffer       the buffer to read from
+   * @param valueTypeRef the given Java value type
+   * @param <T>          the type of the given Java value
+   * @return the stream of values
+   */
+  public <T> Stream<T> readValues(ByteBuffer buffer, TypeReference<T> valueTypeRef) {
+    return readValues(new BufferChunkSource(buffer), JsonUtils.readerFor(valueTypeRef));
+  }
+
+  private <T> Stream<T> readValues(ChunkSource source, ObjectReader reader) {
+    final ChunkIterator<T> iterator = new ChunkIterator<>(source, reader);
+    final int characteristics = ordered ? Spliterator.ORDERED : NumberConstants.ZERO;
+    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, characteristics),
+        false).onClose(iterator::close);
+  }
+
+  private static int parallelismOf(Executor executor) {
+    return executor instanceof ForkJoinPool ? ((ForkJoinPool) executor).getParallelism()
+        : Runtime.getRuntime().availableProcessors();
+  }
+
+  /**
+   * Parse every root-level value of the parser.
+   */
+  private static <T> List<T> parseAll(ObjectReader reader, JsonParser parser) throws IOException {
+    try (JsonParser p = parser) {
+      final List<T> values = new ArrayList<>();
+      while (p.nextToken() != null) {
+        values.add(reader.readValue(p));
+      }
+      return values;
+    }
+  }
+
+  /**
+   * Submits the chunks of a source and returns their values, the chunk boundaries are found on the
+   * consuming thread and the chunks are read and parsed on the executor.
+   */
+  private final class ChunkIterator<T> implements Iterator<T> {
+
+    private final ChunkSource source;
+    private final ObjectReader reader;
+
+    /**
+     * The submitted chunks not taken yet, in source order
+     */
+    private final Queue<CompletableFuture<List<T>>> submitted = new ArrayDeque<>();
+
+    /**
+     * The consumer and the chunk tasks that have not finished, so that the source is closed once
+     * no task reads it anymore
+     */
+    private final Phaser tasks = new Phaser(NumberConstants.ONE);
+
+    /**
+     * The completed chunks, in completion order, only used when unordered
+     */
+    private final BlockingQueue<CompletableFuture<List<T>>> completed =
+        new LinkedBlockingQueue<>();
+
+    /**
+     * The start of the next chunk to submit
+     */
+    private long position;
+
+    private int inFlight;
+
+    private Iterator<T> current = Collections.emptyIterator();
+
+    private boolean closed;
+
+    ChunkIterator(ChunkSource source, ObjectReader reader) {
+      this.source = source;
+      this.reader = reader;
+    }
+
+    @Override
+    public boolean hasNext() {
+      while (!current.hasNext()) {
+        if (closed) {
+          return false;
+        }
+        submit();
+        if (inFlight == NumberConstants.ZERO) {
+          close();
+          return false;
+        }
+        current = take().iterator();
+      }
+      return true;
+    }
+
+    @Override
+    public T next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      return current.next();
+    }
+
+    /**
+     * Submit chunks until {@code maxChunksInFlight} chunks are in flight or the source is
+     * exhausted.
+     */
+    private void submit() {
+      final long size = source.size();
+      while (inFlight < maxChunksInFlight && position < size) {
+        final long start = position;
+        final long end;
+        try {
+          end = start + chunkSize >= size ? size : source.lineEnd(start + chunkSize);
+        } catch (IOException e) {
+          close();
+          throw new FileSystemOperationException(e);
+        }
+        Assert.state(end - start <= Integer.MAX_VALUE - NumberConstants.EIGHT,
+            "line at " + start + " exceeds the maximum chunk size");
+        position = end;
+        final CompletableFuture<List<T>> future = new CompletableFuture<>();
+        tasks.register();
+        try {
+          executor.execute(() -> {
+            try {
+              // skipped once cancelled by close
+              if (!future.isDone()) {
+                future.complete(
+                    parseAll(reader, source.createParser(reader, start, (int) (end - start))));
+              }
+            } catch (IOException e) {
+              future.completeExceptionally(new JsonOperationException(e));
+            } catch (Throwable e) {
+              future.completeExceptionally(e);
+            } finally {
+              tasks.arriveAndDeregister();
+            }
+          });
+        } catch (RejectedExecutionException e) {
+          // the task never runs, so it never arrives
+          tasks.arriveAndDeregister();
+          future.completeExceptionally(e);
+          close();
+          throw e;
+        }
+        submitted.add(future);
+        if (!ordered) {
+          future.whenComplete((values, e) -> completed.add(future));
+        }
+        inFlight++;
+      }
+    }
+
+    /**
+     * Wait for the next chunk, the first submitted one if ordered, the first completed otherwise.
+     */
+    private List<T> take() {
+      try {
+        final CompletableFuture<List<T>> future = ordered ? submitted.remove() : completed.take();
+        if (!ordered) {
+          submitted.remove(future);
+        }
+        inFlight--;
+        return future.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        close();
+        throw new IllegalStateException("Interrupted while waiting for a chunk", e);
+      } catch (CompletionException e) {
+        close();
+        if (e.getCause() instanceof RuntimeException) {
+          throw (RuntimeException) e.getCause();
+        }
+        throw e;
+      }
+    }
+
+    void close() {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      current = Collections.emptyIterator();
+      submitted.forEach(future -> future.cancel(false));
+      submitted.clear();
+      // the tasks already parsing still read the source
+      tasks.arriveAndAwaitAdvance();
+      completed.clear();
+      try {
+        source.close();
+      } catch (IOException e) {
+        throw new FileSystemOperationException(e);
+      }
+    }
+  }
+
+  /**
+   * A source of newline-delimited JSON that can be read at any position from any thread.
+   */
+  private interface ChunkSource extends Closeable {
+
+    /**
+     * Returns the number of bytes of the source.
+     */
+    long size();
+
+    /**
+     * Returns the position after the first newline at or after the given position, the size if
+     * there is none.
+     */
+    long lineEnd(long position) throws IOException;
+
+    /**
+     * Create a parser of the given range.
+     */
+    JsonParser createParser(ObjectReader reader, long start, int length) throws IOException;
+  }
+
+  /**
+   * A file, read with positional reads that do not contend on the channel position.
+   */
+  private static final class FileChunkSource implements ChunkSource {
+
+    private final FileChannel channel;
+    private final long size;
+
+    FileChunkSource(Path path) {
+      Assert.notNull(path, "path must not be null");
+      try {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.size = channel.size();
+      } catch (IOException e) {
+        throw new FileSystemOperationException(e);
+      }
+    }
+
+    @Override
+    public long size() {
+      return size;
+    }
+
+    @Override
+    public long lineEnd(long position) throws IOException {
+      final ByteBuffer block = ByteBuffer.allocate(SCAN_BLOCK_SIZE);
+      while (position < size) {
+        // through Buffer, the ByteBuffer overrides do not exist on Java 8
+        ((Buffer) block).clear();
+        final int read = channel.read(block, position);
+        if (read < NumberConstants.ZERO) {
+          break;
+        }
+        for (int i = NumberConstants.ZERO; i < read; i++) {
+          if (block.get(i) == NEWLINE) {
+            return position + i + NumberConstants.ONE;
+          }
+        }
+        position += read;
+      }
+      return size;
+    }
+
+    @Override
+    public JsonParser createParser(ObjectReader reader, long start, int length)
+        throws IOException {
+      final byte[] bytes = new byte[length];
+      final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+      while (buffer.hasRemaining()) {
+        if (channel.read(buffer, start + buffer.position()) < NumberConstants.ZERO) {
+          throw new EOFException("Unexpected end of file at " + (start + buffer.position()));
+        }
+      }
+      return reader.createParser(bytes, NumberConstants.ZERO, length);
+    }
+
+    @Override
+    public void close() throws IOException {
+      channel.close();
+    }
+  }
+
+  /**
+   * A buffer, heap buffers are parsed in place.
+   */
+  private static final class BufferChunkSource implements ChunkSource {
+
+    private final ByteBuffer buffer;
+
+    BufferChunkSource(ByteBuffer buffer) {
+      Assert.notNull(buffer, "buffer must not be null");
+      this.buffer = buffer.slice();
+    }
+
+    @Override
+    public long size() {
+      return buffer.limit();
+    }
+
+    @Override
+    public long lineEnd(long position) {
+      for (int i = (int) position; i < buffer.limit(); i++) {
+        if (buffer.get(i) == NEWLINE) {
+          return i + NumberConstants.ONE;
+        }
+      }
+      return buffer.limit();
+    }
+
+    @Override
+    public JsonParser createParser(ObjectReader reader, long start, int length)
+        throws IOException {
+      if (buffer.hasArray()) {
+        return reader.createParser(buffer.array(), buffer.arrayOffset() + (int) start, length);
+      }
+      final ByteBuffer chunk = buffer.duplicate();
+      // through Buffer, the ByteBuffer overrides do not exist on Java 8
+      ((Buffer) chunk).position((int) start).limit((int) start + length);
+      return reader.createParser(new ByteBufferBackedInputStream(chunk));
+    }
+
+    @Override
+    public void close() {
+      // the buffer is owned by the caller
+    }
+  }
+
+  /**
+   * A builder of {@link ParallelJsonReader}.
+   */
+  public static class Builder {
+
+    private Executor executor = ForkJoinPool.commonPool();
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+    private int maxChunksInFlight;
+    private boolean ordered = true;
+
+    /**
+     * Set the executor parsing the chunks, {@link ForkJoinPool#commonPool()} by default.
+     *
+     * @param executor the executor to use
+     * @return {@link Builder} instance
+     */
+    public Builder executor(Executor executor) {
+      this.executor = executor;
+      return this;
+    }
+
+    /**
+     * Set the approximate number of bytes of a chunk, chunks are extended to the end of their last
+     * line.
+     *
+     * @param chunkSize the chunk size in bytes
+     * @return {@link Builder} instance
+     */
+    public Builder chunkSize(int chunkSize) {
+      this.chunkSize = chunkSize;
+      return this;
+    }
+
+    /**
+     * Set the maximum number of chunks parsed or waiting to be consumed at a time, twice the
+     * parallelism of the executor by default.
+     *
+     * @param maxChunksInFlight the maximum number of chunks
+     * @return {@link Builder} instance
+     */
+    public Builder maxChunksInFlight(int maxChunksInFlight) {
+      this.maxChunksInFlight = maxChunksInFlight;
+      return this;
+    }
+
+    /**
+     * Set whether values are returned in source order, {@code true} by default. Unordered values
+     * are returned chunk by chunk as the chunks complete, so a slow chunk does not hold back the
+     * others.
+     *
+     * @param ordered whether values are returned in source order
+     * @return {@link Builder} instance
+     */
+    public Builder ordered(boolean ordered) {
+      this.ordered = ordered;
+      return this;
+    }
+
+    /**
+     * Builds the reader.
+     *
+     * @return the built reader
+     */
+    public ParallelJsonReader build() {
+      Assert.notNull(executor, "executor must not be null");
+      Assert.isTrue(chunkSize > NumberConstants.ZERO, "chunkSize must be positive");
+      Assert.isTrue(maxChunksInFlight >= NumberConstants.ZERO,
+          "maxChunksInFlight must not be negative");
+      return new ParallelJsonReader(this);
+    }
+  }
+
+}
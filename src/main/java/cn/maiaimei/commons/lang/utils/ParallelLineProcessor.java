@@ -0,0 +1,412 @@
+package cn.maiaimei.commons.lang.utils;
+
+import cn.maiaimei.commons.lang.constants.NumberConstants;
+import cn.maiaimei.commons.lang.exception.FileSystemOperationException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+import java.util.stream.Collector.Characteristics;
+import org.springframework.util.Assert;
+
+/**
+ * Processes the lines of one large text file on all the threads of a {@link ForkJoinPool}. The
+ * file is split recursively into byte ranges of about {@code chunkSize} bytes, each split moved to
+ * the nearest newline after the middle of the range, or before it if there is none after, so that
+ * no line straddles two ranges. The lines of each range are decoded from a read-only mapping of
+ * the range, or from positional reads, by the worker that owns it.
+ * <p>
+ * Lines are handed to the actions as views of a reusable buffer, only valid during the call, use
+ * {@code toString()} to keep them. The charset must encode {@code \n} as the single byte
+ * {@code 0x0A}, as UTF-8, ASCII and the ISO-8859 charsets do. Instances are immutable and
+ * thread-safe.
+ */
+public final class ParallelLineProcessor {
+
+  /**
+   * The default chunk size, 32 MiB
+   */
+  public static final int DEFAULT_CHUNK_SIZE = 32 << 20;
+
+  /**
+   * The size of the blocks read to find the end of a range
+   */
+  private static final int SCAN_BLOCK_SIZE = 8192;
+
+  private static final byte NEWLINE = '\n';
+
+  private final ForkJoinPool pool;
+  private final int chunkSize;
+  private final Charset charset;
+  private final boolean mapped;
+
+  private ParallelLineProcessor(Builder builder) {
+    this.pool = builder.pool;
+    this.chunkSize = builder.chunkSize;
+    this.charset = builder.charset;
+    this.mapped = builder.mapped;
+  }
+
+  /**
+   * Returns an instance of {@link Builder}
+   *
+   * @return an instance of {@link Builder}
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Perform the action for each line of the file, on several threads at once and in no particular
+   * order, the action must be thread-safe.
+   *
+   * @param file   the file to read, must not be {@code null}
+   * @param action the action to perform for each line, must not be {@code null}
+   */
+  public void forEachLine(File file, Consumer<? super CharSequence> action) {
+    Assert.notNull(action, "action must not be null");
+    process(file, reader -> {
+      CharSequence line;
+      while ((line = reader.readLine()) != null) {
+        action.accept(line);
+      }
+      return null;
+    }, (left, right) -> null);
+  }
+
+  /**
+   * Reduce the lines of the file with the collector, preserving their order: each range is
+   * accumulated into its own container and the containers are combined in file order, so the
+   * combiner only needs to be associative.
+   *
+   * @param file      the file to read, must not be {@code null}
+   * @param collector the collector of the lines, must not be {@code null}
+   * @param <A>       the mutable accumulation type of the collector
+   * @param <R>       the result type of the collector
+   * @return the result of the collector
+   */
+  public <A, R> R collect(File file, Collector<? super CharSequence, A, R> collector) {
+    Assert.notNull(collector, "collector must not be null");
+    final Supplier<A> supplier = collector.supplier();
+    final BiConsumer<A, ? super CharSequence> accumulator = collector.accumulator();
+    final A container = process(file,
+        reader -> accumulate(reader, supplier.get(), accumulator), collector.combiner());
+    return finish(collector, container);
+  }
+
+  /**
+   * Reduce the lines of the file with the collector, regardless of their order: the lines are
+   * accumulated into one container per worker thread, or a single container if the collector is
+   * {@link Characteristics#CONCURRENT}, and the containers are combined in no particular order
+   * once every range is processed. Fewer containers are created and combined than by
+   * {@link #collect(File, Collector)}.
+   *
+   * @param file      the file to read, must not be {@code null}
+   * @param collector the collector of the lines, must not be {@code null}
+   * @param <A>       the mutable accumulation type of the collector
+   * @param <R>       the result type of the collector
+   * @return the result of the collector
+   */
+  public <A, R> R collectUnordered(File file, Collector<? super CharSequence, A, R> collector) {
+    Assert.notNull(collector, "collector must not be null");
+    final Supplier<A> supplier = collector.supplier();
+    final BiConsumer<A, ? super CharSequence> accumulator = collector.accumulator();
+    if (collector.characteristics().contains(Characteristics.CONCURRENT)) {
+      final A container = supplier.get();
+      process(file, reader -> accumulate(reader, container, accumulator), (left, right) -> null);
+      return finish(collector, container);
+    }
+    final Map<Thread, A> containers = new ConcurrentHashMap<>();
+    process(file, reader -> accumulate(reader,
+            containers.computeIfAbsent(Thread.currentThread(), thread -> supplier.get()),
+            accumulator),
+        (left, right) -> null);
+    final A container = containers.values().stream()
+        .reduce(collector.combiner())
+        .orElseGet(supplier);
+    return finish(collector, container);
+  }
+
+  private <T> T process(File file, RangeProcessor<T> processor, BinaryOperator<T> combiner) {
+    Assert.notNull(file, "file must not be null");
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      return pool.invoke(
+          new RangeTask<>(channel, NumberConstants.ZERO, channel.size(), processor, combiner));
+    } catch (IOException e) {
+      throw new FileSystemOperationException(e);
+    }
+  }
+
+  private static <A> A accumulate(LineReader reader, A container,
+      BiConsumer<A, ? super CharSequence> accumulator) throws IOException {
+    CharSequence line;
+    while ((line = reader.readLine()) != null) {
+      accumulator.accept(container, line);
+    }
+    return container;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <A, R> R finish(Collector<?, A, R> collector, A container) {
+    return collector.characteristics().contains(Characteristics.IDENTITY_FINISH)
+        ? (R) container : collector.finisher().apply(container);
+  }
+
+  /**
+   * Returns the position after the first newline at or after the given position, the end if there
+   * is none.
+   */
+  private static long lineEnd(FileChannel channel, long position, long end) throws IOException {
+    final ByteBuffer block = ByteBuffer.allocate(SCAN_BLOCK_SIZE);
+    while (position < end) {
+      // through Buffer, the ByteBuffer overrides do not exist on Java 8
+      ((Buffer) block).clear();
+      final int read = channel.read(block, position);
+      if (read < NumberConstants.ZERO) {
+        break;
+      }
+      for (int i = NumberConstants.ZERO; i < read; i++) {
+        if (block.get(i) == NEWLINE) {
+          return Math.min(position + i + NumberConstants.ONE, end);
+        }
+      }
+      position += read;
+    }
+    return end;
+  }
+
+  /**
+   * Returns the position after the last newline before the given end, the start if there is none.
+   */
+  private static long lastLineEnd(FileChannel channel, long start, long end) throws IOException {
+    final ByteBuffer block = ByteBuffer.allocate(SCAN_BLOCK_SIZE);
+    long blockEnd = end;
+    while (blockEnd > start) {
+      final long blockStart = Math.max(start, blockEnd - SCAN_BLOCK_SIZE);
+      ((Buffer) block).clear();
+      ((Buffer) block).limit((int) (blockEnd - blockStart));
+      while (block.hasRemaining()) {
+        if (channel.read(block, blockStart + block.position()) < NumberConstants.ZERO) {
+          break;
+        }
+      }
+      for (int i = block.position() - NumberConstants.ONE; i >= NumberConstants.ZERO; i--) {
+        if (block.get(i) == NEWLINE) {
+          return blockStart + i + NumberConstants.ONE;
+        }
+      }
+      blockEnd = blockStart;
+    }
+    return start;
+  }
+
+  /**
+   * Processes the lines of a range.
+   */
+  @FunctionalInterface
+  private interface RangeProcessor<T> {
+
+    T process(LineReader reader) throws IOException;
+  }
+
+  /**
+   * Splits a range in two at a newline, the first one after the middle or else the last one
+   * before it, until it is no larger than {@code chunkSize} or has no newline left, then
+   * processes its lines, the results of the two halves are combined in file order.
+   */
+  private final class RangeTask<T> extends RecursiveTask<T> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient FileChannel channel;
+    private final long start;
+    private final long end;
+    private final transient RangeProcessor<T> processor;
+    private final transient BinaryOperator<T> combiner;
+
+    RangeTask(FileChannel channel, long start, long end, RangeProcessor<T> processor,
+        BinaryOperator<T> combiner) {
+      this.channel = channel;
+      this.start = start;
+      this.end = end;
+      this.processor = processor;
+      this.combiner = combiner;
+    }
+
+    @Override
+    protected T compute() {
+      try {
+        if (end - start > chunkSize) {
+          final long middle = start + (end - start) / NumberConstants.TWO;
+          long split = lineEnd(channel, middle, end);
+          if (split == end) {
+            // no newline in the upper half, split the lower half instead
+            split = lastLineEnd(channel, start, middle);
+          }
+          if (split > start && split < end) {
+            final RangeTask<T> left = new RangeTask<>(channel, start, split, processor, combiner);
+            final RangeTask<T> right = new RangeTask<>(channel, split, end, processor, combiner);
+            left.fork();
+            final T rightResult = right.compute();
+            return combiner.apply(left.join(), rightResult);
+          }
+        }
+        return processRange();
+      } catch (IOException e) {
+        throw new FileSystemOperationException(e);
+      }
+    }
+
+    private T processRange() throws IOException {
+      if (mapped && end - start <= Integer.MAX_VALUE) {
+        final MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, start, end - start);
+        try {
+          return processor.process(new LineReader(buffer, charset));
+        } finally {
+          FileUtils.unmap(buffer);
+        }
+      }
+      try (LineReader reader = new LineReader(new RangeChannel(channel, start, end), charset,
+          LineReader.DEFAULT_BUFFER_SIZE)) {
+        return processor.process(reader);
+      }
+    }
+  }
+
+  /**
+   * A range of a file read with positional reads, closing it leaves the file open.
+   */
+  private static final class RangeChannel implements ReadableByteChannel {
+
+    private final FileChannel channel;
+    private final long end;
+    private long position;
+
+    RangeChannel(FileChannel channel, long start, long end) {
+      this.channel = channel;
+      this.position = start;
+      this.end = end;
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+      if (position >= end) {
+        return -1;
+      }
+      final int limit = dst.limit();
+      if (dst.remaining() > end - position) {
+        // through Buffer, the ByteBuffer overrides do not exist on Java 8
+        ((Buffer) dst).limit(dst.position() + (int) (end - position));
+      }
+      try {
+        final int read = channel.read(dst, position);
+        if (read > NumberConstants.ZERO) {
+          position += read;
+        }
+        return read;
+      } finally {
+        ((Buffer) dst).limit(limit);
+      }
+    }
+
+    @Override
+    public boolean isOpen() {
+      return channel.isOpen();
+    }
+
+    @Override
+    public void close() {
+      // the file is owned by the processor
+    }
+  }
+
+  /**
+   * A builder of {@link ParallelLineProcessor}.
+   */
+  public static class Builder {
+
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+    private Charset charset = StandardCharsets.UTF_8;
+    private boolean mapped = true;
+
+    /**
+     * Set the pool processing the ranges, {@link ForkJoinPool#commonPool()} by default.
+     *
+     * @param pool the pool to use
+     * @return {@link Builder} instance
+     */
+    public Builder pool(ForkJoinPool pool) {
+      this.pool = pool;
+      return this;
+    }
+
+    /**
+     * Set the approximate number of bytes of a range, ranges are extended to the end of their last
+     * line.
+     *
+     * @param chunkSize the chunk size in bytes
+     * @return {@link Builder} instance
+     */
+    public Builder chunkSize(int chunkSize) {
+      this.chunkSize = chunkSize;
+      return this;
+    }
+
+    /**
+     * Set the charset of the files, {@code StandardCharsets.UTF_8} by default.
+     *
+     * @param charset the charset to use
+     * @return {@link Builder} instance
+     */
+    public Builder charset(Charset charset) {
+      this.charset = charset;
+      return this;
+    }
+
+    /**
+     * Set whether the ranges are mapped into memory, {@code true} by default, otherwise they are
+     * read with positional reads through a small buffer. Each mapping is released once its range
+     * is processed.
+     *
+     * @param mapped whether the ranges are mapped into memory
+     * @return {@link Builder} instance
+     */
+    public Builder mapped(boolean mapped) {
+      this.mapped = mapped;
+      return this;
+    }
+
+    /**
+     * Builds the processor.
+     *
+     * @return the built processor
+     */
+    public ParallelLineProcessor build() {
+      Assert.notNull(pool, "pool must not be null");
+      Assert.isTrue(chunkSize > NumberConstants.ZERO, "chunkSize must be positive");
+      Assert.notNull(charset, "charset must not be null");
+      Assert.isTrue(Arrays.equals(new byte[]{NEWLINE}, "\n".getBytes(charset)),
+          "charset must encode a newline as a single byte");
+      return new ParallelLineProcessor(this);
+    }
+  }
+
+}
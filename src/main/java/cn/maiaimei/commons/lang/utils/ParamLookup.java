@@ -0,0 +1,21 @@
+package cn.maiaimei.commons.lang.utils;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Looks up the params of a value expression by name, such as {@code map::get}, so that params can
+ * be read from any source without copying them into a map.
+ */
+@FunctionalInterface
+public interface ParamLookup {
+
+  /**
+   * Look up a param by name.
+   *
+   * @param name the param name
+   * @return the param value, or {@code null} if absent
+   */
+  @Nullable
+  String get(String name);
+
+}
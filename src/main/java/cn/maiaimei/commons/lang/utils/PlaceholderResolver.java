@@ -0,0 +1,111 @@
+package cn.maiaimei.commons.lang.utils;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import org.springframework.lang.Nullable;
+
+/**
+ * Resolves the value of a ${name} or ${name->argument} placeholder of a value expression.
+ * <p>
+ * Resolvers are registered once with {@link ValueExpressionUtils#registerResolver} and bound to
+ * their placeholders when an expression is compiled, so rendering dispatches straight to the bound
+ * {@link Placeholder} without comparing placeholder names.
+ */
+public interface PlaceholderResolver {
+
+  /**
+   * Returns the name of the placeholders this resolver handles, such as {@code currentTimestamp}.
+   *
+   * @return the placeholder name
+   */
+  String getName();
+
+  /**
+   * Bind this resolver to a placeholder, called once when an expression is compiled. Any parsing of
+   * the argument, such as creating a formatter, should happen here.
+   *
+   * @param argument the text after {@code ->}, {@code null} if the placeholder has no argument
+   * @return the bound placeholder
+   * @throws IllegalArgumentException if the argument is invalid
+   */
+  Placeholder bind(@Nullable String argument);
+
+  /**
+   * A placeholder bound to its resolver, shared by every render of a compiled expression.
+   */
+  @FunctionalInterface
+  interface Placeholder {
+
+    /**
+     * Resolve the value of the placeholder and append it to the appendable.
+     *
+     * @param appendable the appendable to append to
+     * @param context    the context of the current render
+     * @throws IOException if the appendable fails
+     */
+    void resolve(Appendable appendable, Context context) throws IOException;
+
+    /**
+     * Returns the estimated length of the resolved value, used to pre-size the target buffer.
+     *
+     * @return the estimated length
+     */
+    default int estimatedLength() {
+      return 16;
+    }
+
+    /**
+     * Returns how many times a resolve calls {@link Context#nextSerialNumber()}, used to reserve a
+     * block of serial numbers for batch renders.
+     *
+     * @return the number of serial numbers taken per resolve
+     */
+    default int serialNumberCount() {
+      return 0;
+    }
+  }
+
+  /**
+   * The state of a single render of a compiled expression.
+   */
+  interface Context {
+
+    /**
+     * Look up a param by name.
+     *
+     * @param name the param name
+     * @return the param value, or {@code null} if absent
+     */
+    @Nullable
+    String getParam(String name);
+
+    /**
+     * Returns the next serial number of this render, a batch render takes it from a block reserved
+     * up front.
+     *
+     * @return the serial number
+     */
+    int nextSerialNumber();
+
+    /**
+     * Returns the current epoch milliseconds of this render, a batch render reads the clock once
+     * and returns the same value for every item.
+     *
+     * @return the milliseconds since 1970-01-01T00:00:00Z
+     */
+    long currentTimeMillis();
+
+    /**
+     * Returns the current date and time of this render in the system default time-zone.
+     *
+     * @return the current date and time
+     */
+    default LocalDateTime now() {
+      return LocalDateTime.ofInstant(Instant.ofEpochMilli(currentTimeMillis()),
+          ZoneId.systemDefault());
+    }
+  }
+
+}
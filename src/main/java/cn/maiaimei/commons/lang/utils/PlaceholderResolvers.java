@@ -0,0 +1,159 @@
+package cn.maiaimei.commons.lang.utils;
+
+import cn.maiaimei.commons.lang.constants.NumberConstants;
+import java.io.IOException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.springframework.util.Assert;
+
+/**
+ * The built-in {@link PlaceholderResolver}s of value expressions.
+ */
+final class PlaceholderResolvers {
+
+  /**
+   * The resolver of ${currentTimestamp->pattern}, the pattern is a
+   * {@link java.time.format.DateTimeFormatter} pattern
+   */
+  static final PlaceholderResolver CURRENT_TIMESTAMP = new CurrentTimestampResolver();
+
+  /**
+   * The resolver of ${serialNumber->format}, the format is a {@link String#format} format
+   */
+  static final PlaceholderResolver SERIAL_NUMBER = new SerialNumberResolver();
+
+  /**
+   * A zero padded decimal format, such as %d or %05d
+   */
+  private static final Pattern DECIMAL_FORMAT_PATTERN = Pattern.compile("%(0(\\d{1,2}))?d");
+
+  /**
+   * Private constructors ensure that classes cannot be instantiated
+   */
+  private PlaceholderResolvers() {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * The resolver of ${currentTimestamp->pattern}, the formatter is looked up at compile time.
+   */
+  private static final class CurrentTimestampResolver implements PlaceholderResolver {
+
+    @Override
+    public String getName() {
+      return "currentTimestamp";
+    }
+
+    @Override
+    public Placeholder bind(String argument) {
+      Assert.notNull(argument, "Invalid currentTimestamp key");
+      final TimestampFormatter formatter = DateTimeUtils.getTimestampFormatter(argument);
+      final int length = argument.length();
+      return new Placeholder() {
+        @Override
+        public void resolve(Appendable appendable, Context context) throws IOException {
+          formatter.formatTo(context.currentTimeMillis(), appendable);
+        }
+
+        @Override
+        public int estimatedLength() {
+          return length;
+        }
+      };
+    }
+  }
+
+  /**
+   * The resolver of ${serialNumber->format}, zero padded decimal formats avoid
+   * {@link String#format(String, Object...)}.
+   */
+  private static final class SerialNumberResolver implements PlaceholderResolver {
+
+    @Override
+    public String getName() {
+      return "serialNumber";
+    }
+
+    @Override
+    public Placeholder bind(String argument) {
+      Assert.notNull(argument, "Invalid serialNumber key");
+      final Matcher matcher = DECIMAL_FORMAT_PATTERN.matcher(argument);
+      if (!matcher.matches()) {
+        return new FormatPlaceholder(argument);
+      }
+      final String width = matcher.group(NumberConstants.TWO);
+      return new DecimalPlaceholder(argument,
+          width == null ? NumberConstants.ZERO : Integer.parseInt(width));
+    }
+  }
+
+  /**
+   * A serial number in any {@link String#format} format.
+   */
+  private static final class FormatPlaceholder implements PlaceholderResolver.Placeholder {
+
+    private final String format;
+
+    FormatPlaceholder(String format) {
+      this.format = format;
+    }
+
+    @Override
+    public void resolve(Appendable appendable, PlaceholderResolver.Context context)
+        throws IOException {
+      appendable.append(String.format(format, context.nextSerialNumber()));
+    }
+
+    @Override
+    public int serialNumberCount() {
+      return NumberConstants.ONE;
+    }
+  }
+
+  /**
+   * A serial number in a zero padded decimal format.
+   */
+  private static final class DecimalPlaceholder implements PlaceholderResolver.Placeholder {
+
+    private final String format;
+    private final int width;
+
+    DecimalPlaceholder(String format, int width) {
+      this.format = format;
+      this.width = width;
+    }
+
+    @Override
+    public void resolve(Appendable appendable, PlaceholderResolver.Context context)
+        throws IOException {
+      final int serialNumber = context.nextSerialNumber();
+      if (serialNumber < NumberConstants.ZERO) {
+        appendable.append(String.format(format, serialNumber));
+        return;
+      }
+      int divisor = NumberConstants.ONE;
+      int size = NumberConstants.ONE;
+      while (serialNumber / divisor >= NumberConstants.TEN) {
+        divisor *= NumberConstants.TEN;
+        size++;
+      }
+      for (int i = size; i < width; i++) {
+        appendable.append('0');
+      }
+      for (; divisor > NumberConstants.ZERO; divisor /= NumberConstants.TEN) {
+        appendable.append((char) ('0' + serialNumber / divisor % NumberConstants.TEN));
+      }
+    }
+
+    @Override
+    public int estimatedLength() {
+      return Math.max(width, NumberConstants.TEN);
+    }
+
+    @Override
+    public int serialNumberCount() {
+      return NumberConstants.ONE;
+    }
+  }
+
+}
@@ -0,0 +1,167 @@
+package cn.maiaimei.commons.lang.utils;
+
+import cn.maiaimei.commons.lang.exception.JsonOperationException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import org.apache.commons.io.output.StringBuilderWriter;
+import org.springframework.util.Assert;
+
+/**
+ * Serializes many values one after the other, reusing one {@link JsonGenerator} and its buffers
+ * per kind of output instead of creating them for every value as {@link JsonUtils#toJson(Object)}
+ * does. Keep an instance per thread, or per task, to serialize large numbers of small values.
+ * <p>
+ * Values written into an output stream or a writer reuse one generator as long as they go to the
+ * same sink, a new one is created when the sink changes. Such values are written back to back
+ * without separator, as root-level values that {@link JsonUtils#readValues(java.io.InputStream,
+ * Class)} reads back, and the sink is flushed after each value but never closed.
+ * <p>
+ * Instances are not thread-safe. Closing the writer returns the buffers of its generators to the
+ * {@link JsonBufferPool}.
+ */
+public final class ReusableJsonWriter implements Closeable {
+
+  private final JsonProfile profile;
+
+  private final ByteArrayBuilder bytes = new ByteArrayBuilder();
+
+  private final StringBuilderWriter chars = new StringBuilderWriter();
+
+  /**
+   * The generator writing to {@link #bytes}, created on first use
+   */
+  private JsonGenerator byteGenerator;
+
+  /**
+   * The generator writing to {@link #chars}, created on first use
+   */
+  private JsonGenerator charGenerator;
+
+  /**
+   * The output stream or writer {@link #sinkGenerator} writes to
+   */
+  private Object sink;
+
+  /**
+   * The generator writing to {@link #sink}, replaced when the sink changes
+   */
+  private JsonGenerator sinkGenerator;
+
+  ReusableJsonWriter(JsonProfile profile) {
+    this.profile = profile;
+  }
+
+  /**
+   * Serialize any Java value as a JSON String
+   *
+   * @param value any Java value
+   * @return JSON String
+   */
+  public String toJson(Object value) {
+    try {
+      if (charGenerator == null) {
+        charGenerator = profile.createGenerator(chars);
+      }
+      profile.writerFor(value).writeValue(charGenerator, value);
+      return chars.toString();
+    } catch (IOException e) {
+      charGenerator = closeQuietly(charGenerator);
+      throw new JsonOperationException(e);
+    } finally {
+      chars.getBuilder().setLength(0);
+    }
+  }
+
+  /**
+   * Serialize any Java value as UTF-8 encoded JSON bytes
+   *
+   * @param value any Java value
+   * @return JSON bytes
+   */
+  public byte[] toJsonBytes(Object value) {
+    try {
+      if (byteGenerator == null) {
+        byteGenerator = profile.createGenerator(bytes);
+      }
+      profile.writerFor(value).writeValue(byteGenerator, value);
+      return bytes.toByteArray();
+    } catch (IOException e) {
+      byteGenerator = closeQuietly(byteGenerator);
+      throw new JsonOperationException(e);
+    } finally {
+      bytes.reset();
+    }
+  }
+
+  /**
+   * Serialize any Java value as UTF-8 encoded JSON into the output stream, reusing the generator
+   * of the previous call if it wrote to the same output stream. The output stream is flushed but
+   * not closed.
+   *
+   * @param value any Java value
+   * @param out   the output stream to write to
+   */
+  public void writeTo(Object value, OutputStream out) {
+    Assert.notNull(out, "out must not be null");
+    writeToSink(value, out);
+  }
+
+  /**
+   * Serialize any Java value as JSON into the writer, reusing the generator of the previous call
+   * if it wrote to the same writer. The writer is flushed but not closed.
+   *
+   * @param value  any Java value
+   * @param writer the writer to write to
+   */
+  public void writeTo(Object value, Writer writer) {
+    Assert.notNull(writer, "writer must not be null");
+    writeToSink(value, writer);
+  }
+
+  /**
+   * Close the generators, the sink is flushed but not closed. The writer may still be used and
+   * creates new ones.
+   */
+  @Override
+  public void close() {
+    byteGenerator = closeQuietly(byteGenerator);
+    charGenerator = closeQuietly(charGenerator);
+    sinkGenerator = closeQuietly(sinkGenerator);
+    sink = null;
+  }
+
+  private void writeToSink(Object value, Object target) {
+    try {
+      if (sink != target) {
+        sinkGenerator = closeQuietly(sinkGenerator);
+        sink = null;
+        sinkGenerator = target instanceof OutputStream
+            ? profile.createGenerator((OutputStream) target)
+            : profile.createGenerator((Writer) target);
+        sink = target;
+      }
+      profile.writerFor(value).writeValue(sinkGenerator, value);
+    } catch (IOException e) {
+      // the generator state is unknown, part of the value may have reached the sink
+      sinkGenerator = closeQuietly(sinkGenerator);
+      sink = null;
+      throw new JsonOperationException(e);
+    }
+  }
+
+  private static JsonGenerator closeQuietly(JsonGenerator generator) {
+    if (generator != null) {
+      try {
+        generator.close();
+      } catch (IOException e) {
+        // ignore, the generator is discarded
+      }
+    }
+    return null;
+  }
+
+}
@@ -0,0 +1,443 @@
+package cn.maiaimei.commons.lang.utils;
+
+import cn.maiaimei.commons.lang.constants.NumberConstants;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator.OfLong;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.stream.LongStream;
+import org.springframework.util.Assert;
+
+/**
+ * A lock-free generator of unique, time-ordered 64-bit ids.
+ * <p>
+ * An id packs, from the most significant bit, a sign bit that is always {@code 0}, the
+ * milliseconds since the epoch, the worker id and a per-millisecond sequence. The last timestamp
+ * and sequence are kept in one packed state word updated by compare-and-set, so ids are created
+ * without locks or allocation. If the clock moves backwards, ids continue from the last timestamp
+ * until its sequence is exhausted, and then wait for the clock to catch up.
+ */
+public final class SnowflakeIdGenerator {
+
+  /**
+   * The default epoch, 2024-01-01T00:00:00Z
+   */
+  public static final long DEFAULT_EPOCH = 1704067200000L;
+
+  /**
+   * The default number of worker id bits, up to 1024 workers
+   */
+  public static final int DEFAULT_WORKER_ID_BITS = 10;
+
+  /**
+   * The default number of sequence bits, up to 4096 ids per millisecond
+   */
+  public static final int DEFAULT_SEQUENCE_BITS = 12;
+
+  /**
+   * The default maximum milliseconds the clock may move backwards before failing
+   */
+  public static final long DEFAULT_MAX_BACKWARD_MILLIS = 5000L;
+
+  private final long epoch;
+  private final long workerId;
+  private final int sequenceBits;
+  private final int workerIdBits;
+  private final long sequenceMask;
+  private final long maxTimestamp;
+  private final long maxBackwardMillis;
+  private final LongSupplier clock;
+
+  /**
+   * The last timestamp, relative to the epoch, shifted left by the sequence bits, or'ed with the
+   * last sequence
+   */
+  private final AtomicLong state = new AtomicLong(-1L);
+
+  private SnowflakeIdGenerator(Builder builder) {
+    this.epoch = builder.epoch;
+    this.workerId = builder.workerId;
+    this.sequenceBits = builder.sequenceBits;
+    this.workerIdBits = builder.workerIdBits;
+    this.sequenceMask = (1L << builder.sequenceBits) - 1;
+    this.maxTimestamp = (1L << (63 - builder.workerIdBits - builder.sequenceBits)) - 1;
+    this.maxBackwardMillis = builder.maxBackwardMillis;
+    this.clock = builder.clock;
+  }
+
+  /**
+   * Returns a generator with the default epoch and bit layout.
+   *
+   * @param workerId the worker id, unique among the generators creating ids of the same kind
+   * @return a new generator
+   */
+  public static SnowflakeIdGenerator of(long workerId) {
+    return builder().workerId(workerId).build();
+  }
+
+  /**
+   * Returns an instance of {@link Builder}
+   *
+   * @return an instance of {@link Builder}
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Returns the next id.
+   *
+   * @return a unique, positive id
+   * @throws IllegalStateException if the clock moved backwards further than allowed, or the
+   *                               timestamp no longer fits its bits
+   */
+  public long nextId() {
+    for (; ; ) {
+      final long current = state.get();
+      final long lastTimestamp = current >> sequenceBits;
+      final long timestamp = currentTimestamp();
+      final long next;
+      if (timestamp > lastTimestamp) {
+        next = timestamp << sequenceBits;
+      } else if ((current & sequenceMask) < sequenceMask) {
+        // same millisecond, or the clock moved backwards: continue from the last timestamp
+        next = current + 1;
+      } else {
+        awaitTimestamp(lastTimestamp);
+        continue;
+      }
+      if (state.compareAndSet(current, next)) {
+        return compose(next);
+      }
+    }
+  }
+
+  /**
+   * Reserve {@code count} unique ids in a single atomic step. The ids are consecutive sequence
+   * numbers that carry over into the following milliseconds when the current one runs out, so a
+   * large reservation runs ahead of the clock and later ids wait for the clock to catch up.
+   *
+   * @param count the number of ids, at most the sequence capacity times the maximum backward
+   *              milliseconds
+   * @return the reserved ids
+   * @throws IllegalStateException if the clock moved backwards further than allowed, or the
+   *                               timestamp no longer fits its bits
+   */
+  public IdRange reserve(int count) {
+    Assert.isTrue(count > NumberConstants.ZERO, "count must be positive");
+    Assert.isTrue(count <= (maxBackwardMillis + 1) * (sequenceMask + 1),
+        "count must not exceed " + (maxBackwardMillis + 1) * (sequenceMask + 1));
+    for (; ; ) {
+      final long current = state.get();
+      final long lastTimestamp = current >> sequenceBits;
+      final long timestamp = currentTimestamp();
+      final long last = timestamp > lastTimestamp ? (timestamp << sequenceBits) - 1 : current;
+      final long next = last + count;
+      if ((next >> sequenceBits) - timestamp > maxBackwardMillis) {
+        awaitTimestamp(lastTimestamp);
+        continue;
+      }
+      Assert.state((next >> sequenceBits) <= maxTimestamp, "Timestamp exceeds the bits of the id");
+      if (state.compareAndSet(current, next)) {
+        return new IdRange(this, last + 1, count);
+      }
+    }
+  }
+
+  /**
+   * Compose the id of a packed state.
+   *
+   * @param packedState the timestamp shifted left by the sequence bits, or'ed with the sequence
+   * @return the id
+   */
+  private long compose(long packedState) {
+    final long timestamp = packedState >> sequenceBits;
+    final long sequence = packedState & sequenceMask;
+    return (timestamp << (workerIdBits + sequenceBits)) | (workerId << sequenceBits) | sequence;
+  }
+
+  /**
+   * Returns the number of sequence numbers per millisecond.
+   *
+   * @return the sequence capacity
+   */
+  public int getSequenceCapacity() {
+    return (int) (sequenceMask + 1);
+  }
+
+  /**
+   * Returns the worker id of this generator.
+   *
+   * @return the worker id
+   */
+  public long getWorkerId() {
+    return workerId;
+  }
+
+  /**
+   * Returns the epoch milliseconds at which the id was created.
+   *
+   * @param id an id created by a generator with the same layout
+   * @return the milliseconds since 1970-01-01T00:00:00Z
+   */
+  public long getTimestamp(long id) {
+    return (id >>> (workerIdBits + sequenceBits)) + epoch;
+  }
+
+  /**
+   * Returns the worker id of the generator that created the id.
+   *
+   * @param id an id created by a generator with the same layout
+   * @return the worker id
+   */
+  public long getWorkerId(long id) {
+    return (id >>> sequenceBits) & ((1L << workerIdBits) - 1);
+  }
+
+  /**
+   * Returns the sequence of the id within its millisecond.
+   *
+   * @param id an id created by a generator with the same layout
+   * @return the sequence
+   */
+  public long getSequence(long id) {
+    return id & sequenceMask;
+  }
+
+  /**
+   * Returns the current milliseconds since the epoch.
+   */
+  private long currentTimestamp() {
+    final long timestamp = clock.getAsLong() - epoch;
+    Assert.state(timestamp >= NumberConstants.ZERO, "Clock is before the epoch");
+    Assert.state(timestamp <= maxTimestamp, "Timestamp exceeds the bits of the id");
+    return timestamp;
+  }
+
+  /**
+   * Wait until the clock passes the given timestamp.
+   */
+  private void awaitTimestamp(long lastTimestamp) {
+    long timestamp = currentTimestamp();
+    if (lastTimestamp - timestamp > maxBackwardMillis) {
+      throw new IllegalStateException(String.format(
+          "Clock moved backwards by %d ms, refusing to create ids", lastTimestamp - timestamp));
+    }
+    while (timestamp <= lastTimestamp) {
+      Thread.yield();
+      timestamp = currentTimestamp();
+    }
+  }
+
+  /**
+   * A range of ids reserved by {@link #reserve(int)}, in increasing order. The ids are composed on
+   * access, so iterating or streaming the range creates no object per id.
+   */
+  public static final class IdRange implements Iterable<Long> {
+
+    private final SnowflakeIdGenerator generator;
+
+    /**
+     * The packed state of the first id
+     */
+    private final long first;
+
+    private final int size;
+
+    IdRange(SnowflakeIdGenerator generator, long first, int size) {
+      this.generator = generator;
+      this.first = first;
+      this.size = size;
+    }
+
+    /**
+     * Returns the number of ids in this range.
+     *
+     * @return the number of ids
+     */
+    public int size() {
+      return size;
+    }
+
+    /**
+     * Returns the id at the given index.
+     *
+     * @param index the index, between 0 and {@code size() - 1}
+     * @return the id
+     */
+    public long get(int index) {
+      if (index < NumberConstants.ZERO || index >= size) {
+        throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+      }
+      return generator.compose(first + index);
+    }
+
+    /**
+     * Returns the smallest id of this range.
+     *
+     * @return the first id
+     */
+    public long getFirst() {
+      return generator.compose(first);
+    }
+
+    /**
+     * Returns the largest id of this range.
+     *
+     * @return the last id
+     */
+    public long getLast() {
+      return generator.compose(first + size - 1);
+    }
+
+    /**
+     * Returns the ids of this range as a new array.
+     *
+     * @return the ids
+     */
+    public long[] toArray() {
+      final long[] ids = new long[size];
+      for (int i = 0; i < size; i++) {
+        ids[i] = generator.compose(first + i);
+      }
+      return ids;
+    }
+
+    /**
+     * Returns a sequential stream of the ids of this range.
+     *
+     * @return the ids
+     */
+    public LongStream stream() {
+      return LongStream.range(first, first + size).map(generator::compose);
+    }
+
+    /**
+     * Returns a lazy iterator over the ids of this range, use {@link OfLong#nextLong()} to avoid
+     * boxing.
+     *
+     * @return the iterator
+     */
+    @Override
+    public OfLong iterator() {
+      return new OfLong() {
+        private long next = first;
+
+        @Override
+        public boolean hasNext() {
+          return next < first + size;
+        }
+
+        @Override
+        public long nextLong() {
+          if (!hasNext()) {
+            throw new NoSuchElementException();
+          }
+          return generator.compose(next++);
+        }
+      };
+    }
+
+    @Override
+    public String toString() {
+      return "IdRange[" + getFirst() + ".." + getLast() + ", size=" + size + "]";
+    }
+  }
+
+  /**
+   * A builder of {@link SnowflakeIdGenerator}.
+   */
+  public static class Builder {
+
+    private long epoch = DEFAULT_EPOCH;
+    private long workerId = -1L;
+    private int workerIdBits = DEFAULT_WORKER_ID_BITS;
+    private int sequenceBits = DEFAULT_SEQUENCE_BITS;
+    private long maxBackwardMillis = DEFAULT_MAX_BACKWARD_MILLIS;
+    private LongSupplier clock = System::currentTimeMillis;
+
+    /**
+     * Set the epoch, ids count milliseconds from it.
+     *
+     * @param epoch the epoch in milliseconds since 1970-01-01T00:00:00Z
+     * @return {@link Builder} instance
+     */
+    public Builder epoch(long epoch) {
+      this.epoch = epoch;
+      return this;
+    }
+
+    /**
+     * Set the worker id, unique among the generators creating ids of the same kind.
+     *
+     * @param workerId the worker id
+     * @return {@link Builder} instance
+     */
+    public Builder workerId(long workerId) {
+      this.workerId = workerId;
+      return this;
+    }
+
+    /**
+     * Set the number of worker id bits.
+     *
+     * @param workerIdBits the number of worker id bits
+     * @return {@link Builder} instance
+     */
+    public Builder workerIdBits(int workerIdBits) {
+      this.workerIdBits = workerIdBits;
+      return this;
+    }
+
+    /**
+     * Set the number of sequence bits.
+     *
+     * @param sequenceBits the number of sequence bits
+     * @return {@link Builder} instance
+     */
+    public Builder sequenceBits(int sequenceBits) {
+      this.sequenceBits = sequenceBits;
+      return this;
+    }
+
+    /**
+     * Set the maximum milliseconds the clock may move backwards before id creation fails.
+     *
+     * @param maxBackwardMillis the maximum milliseconds
+     * @return {@link Builder} instance
+     */
+    public Builder maxBackwardMillis(long maxBackwardMillis) {
+      this.maxBackwardMillis = maxBackwardMillis;
+      return this;
+    }
+
+    /**
+     * Set the clock returning epoch milliseconds, {@code System::currentTimeMillis} by default.
+     *
+     * @param clock the clock to use
+     * @return {@link Builder} instance
+     */
+    public Builder clock(LongSupplier clock) {
+      this.clock = clock;
+      return this;
+    }
+
+    /**
+     * Builds the generator.
+     *
+     * @return the built generator
+     */
+    public SnowflakeIdGenerator build() {
+      Assert.isTrue(workerIdBits >= NumberConstants.ZERO && sequenceBits > NumberConstants.ZERO
+              && workerIdBits + sequenceBits <= 31,
+          "workerIdBits and sequenceBits must be non-negative and sum up to at most 31");
+      Assert.isTrue(workerId >= NumberConstants.ZERO && workerId < (1L << workerIdBits),
+          "workerId must be between 0 and " + ((1L << workerIdBits) - 1));
+      Assert.isTrue(maxBackwardMillis >= NumberConstants.ZERO,
+          "maxBackwardMillis must not be negative");
+      Assert.notNull(clock, "clock must not be null");
+      return new SnowflakeIdGenerator(this);
+    }
+  }
+
+}
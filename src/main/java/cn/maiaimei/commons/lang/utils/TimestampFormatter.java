@@ -0,0 +1,419 @@
+package cn.maiaimei.commons.lang.utils;
+
+import cn.maiaimei.commons.lang.constants.DateTimeConstants;
+import cn.maiaimei.commons.lang.constants.NumberConstants;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import org.springframework.util.Assert;
+
+/**
+ * Formats epoch milliseconds straight into {@code char[]}, {@code byte[]} or {@link Appendable}
+ * targets.
+ * <p>
+ * The patterns of {@link DateTimeConstants} are formatted digit by digit without creating a
+ * {@link LocalDateTime}, and the date digits are cached until the date or the zone offset changes.
+ * Any other pattern falls back to a {@link DateTimeFormatter}. Instances are thread-safe.
+ */
+public abstract class TimestampFormatter {
+
+  private static final long MILLIS_PER_SECOND = 1000L;
+
+  private static final long MILLIS_PER_DAY = 24L * 60 * 60 * MILLIS_PER_SECOND;
+
+  /**
+   * The pattern of this formatter
+   */
+  private final String pattern;
+
+  private TimestampFormatter(String pattern) {
+    this.pattern = pattern;
+  }
+
+  /**
+   * Returns a formatter of the given pattern in the system default time-zone.
+   *
+   * @param pattern the pattern to use, must not be {@code null}
+   * @return a formatter
+   */
+  public static TimestampFormatter ofPattern(String pattern) {
+    return ofPattern(pattern, ZoneId.systemDefault());
+  }
+
+  /**
+   * Returns a formatter of the given pattern in the given time-zone.
+   *
+   * @param pattern the pattern to use, must not be {@code null}
+   * @param zone    the time-zone to use, must not be {@code null}
+   * @return a formatter
+   */
+  public static TimestampFormatter ofPattern(String pattern, ZoneId zone) {
+    Assert.notNull(pattern, "pattern must not be null");
+    Assert.notNull(zone, "zone must not be null");
+    switch (pattern) {
+      case DateTimeConstants.YYYYMMDDHHMMSSSSS:
+      case DateTimeConstants.YYYYMMDDHHMMSS:
+      case DateTimeConstants.YYYYMMDD:
+        return new FixedTimestampFormatter(pattern, zone);
+      default:
+        return new PatternTimestampFormatter(pattern, zone);
+    }
+  }
+
+  /**
+   * Returns the pattern of this formatter.
+   *
+   * @return the pattern
+   */
+  public String getPattern() {
+    return pattern;
+  }
+
+  /**
+   * Format the given epoch milliseconds into a new string.
+   *
+   * @param epochMillis the milliseconds since 1970-01-01T00:00:00Z
+   * @return the formatted date and time
+   */
+  public abstract String format(long epochMillis);
+
+  /**
+   * Format the given epoch milliseconds into the char array.
+   *
+   * @param epochMillis the milliseconds since 1970-01-01T00:00:00Z
+   * @param dest        the char array to write to
+   * @param offset      the index of the first char to write
+   * @return the index after the last char written
+   * @throws IndexOutOfBoundsException if the char array is too small
+   */
+  public abstract int formatTo(long epochMillis, char[] dest, int offset);
+
+  /**
+   * Format the given epoch milliseconds into the byte array as US-ASCII, which is also UTF-8 for
+   * the digits of the fixed patterns.
+   *
+   * @param epochMillis the milliseconds since 1970-01-01T00:00:00Z
+   * @param dest        the byte array to write to
+   * @param offset      the index of the first byte to write
+   * @return the index after the last byte written
+   * @throws IndexOutOfBoundsException if the byte array is too small
+   */
+  public abstract int formatTo(long epochMillis, byte[] dest, int offset);
+
+  /**
+   * Format the given epoch milliseconds and append the result to the builder.
+   *
+   * @param epochMillis the milliseconds since 1970-01-01T00:00:00Z
+   * @param builder     the builder to append to
+   * @return the given builder
+   */
+  public StringBuilder formatTo(long epochMillis, StringBuilder builder) {
+    try {
+      formatTo(epochMillis, (Appendable) builder);
+    } catch (IOException e) {
+      // a StringBuilder never throws IOException
+      throw new UncheckedIOException(e);
+    }
+    return builder;
+  }
+
+  /**
+   * Format the given epoch milliseconds and append the result to the appendable.
+   *
+   * @param epochMillis the milliseconds since 1970-01-01T00:00:00Z
+   * @param appendable  the appendable to append to
+   * @throws IOException if the appendable fails
+   */
+  public abstract void formatTo(long epochMillis, Appendable appendable) throws IOException;
+
+  @Override
+  public String toString() {
+    return pattern;
+  }
+
+  /**
+   * The formatter of yyyyMMddHHmmssSSS, yyyyMMddHHmmss and yyyyMMdd.
+   */
+  private static final class FixedTimestampFormatter extends TimestampFormatter {
+
+    private final ZoneRules rules;
+
+    /**
+     * The number of chars written, 8, 14 or 17
+     */
+    private final int length;
+
+    /**
+     * The fallback for years outside 0001 to 9999
+     */
+    private final PatternTimestampFormatter fallback;
+
+    /**
+     * The cached date of the last formatted epoch milliseconds
+     */
+    private volatile DateCache dateCache;
+
+    FixedTimestampFormatter(String pattern, ZoneId zone) {
+      super(pattern);
+      this.rules = zone.getRules();
+      this.length = pattern.length();
+      this.fallback = new PatternTimestampFormatter(pattern, zone);
+      this.dateCache = new DateCache(Long.MIN_VALUE, Long.MIN_VALUE, 0, null);
+    }
+
+    @Override
+    public String format(long epochMillis) {
+      final DateCache cache = getDateCache(epochMillis);
+      if (cache.digits == null) {
+        return fallback.format(epochMillis);
+      }
+      final char[] chars = new char[length];
+      formatTo(epochMillis, chars, 0);
+      return new String(chars);
+    }
+
+    @Override
+    public int formatTo(long epochMillis, char[] dest, int offset) {
+      final DateCache cache = getDateCache(epochMillis);
+      if (cache.digits == null) {
+        return fallback.formatTo(epochMillis, dest, offset);
+      }
+      if (offset < 0 || offset + length > dest.length) {
+        throw new IndexOutOfBoundsException("offset " + offset + ", length " + length);
+      }
+      System.arraycopy(cache.digits, 0, dest, offset, NumberConstants.EIGHT);
+      if (length > NumberConstants.EIGHT) {
+        writeTime(cache, epochMillis, dest, offset + NumberConstants.EIGHT);
+      }
+      return offset + length;
+    }
+
+    @Override
+    public int formatTo(long epochMillis, byte[] dest, int offset) {
+      final DateCache cache = getDateCache(epochMillis);
+      if (cache.digits == null) {
+        return fallback.formatTo(epochMillis, dest, offset);
+      }
+      if (offset < 0 || offset + length > dest.length) {
+        throw new IndexOutOfBoundsException("offset " + offset + ", length " + length);
+      }
+      for (int i = 0; i < NumberConstants.EIGHT; i++) {
+        dest[offset + i] = (byte) cache.digits[i];
+      }
+      if (length > NumberConstants.EIGHT) {
+        writeTime(cache, epochMillis, dest, offset + NumberConstants.EIGHT);
+      }
+      return offset + length;
+    }
+
+    @Override
+    public void formatTo(long epochMillis, Appendable appendable) throws IOException {
+      final DateCache cache = getDateCache(epochMillis);
+      if (cache.digits == null) {
+        fallback.formatTo(epochMillis, appendable);
+        return;
+      }
+      for (int i = 0; i < NumberConstants.EIGHT; i++) {
+        appendable.append(cache.digits[i]);
+      }
+      if (length > NumberConstants.EIGHT) {
+        final int millisOfDay = cache.millisOfDay(epochMillis);
+        final int secondOfDay = millisOfDay / 1000;
+        appendTwoDigits(secondOfDay / 3600, appendable);
+        appendTwoDigits(secondOfDay / 60 % 60, appendable);
+        appendTwoDigits(secondOfDay % 60, appendable);
+        if (length == NumberConstants.SEVENTEEN) {
+          final int millis = millisOfDay % 1000;
+          appendable.append((char) ('0' + millis / 100));
+          appendTwoDigits(millis % 100, appendable);
+        }
+      }
+    }
+
+    /**
+     * Write the HHmmss or HHmmssSSS digits starting at the offset.
+     */
+    private void writeTime(DateCache cache, long epochMillis, char[] dest, int offset) {
+      int millisOfDay = cache.millisOfDay(epochMillis);
+      int position = offset + length - NumberConstants.EIGHT;
+      if (length == NumberConstants.SEVENTEEN) {
+        position = writeDigits(millisOfDay % 1000, 3, dest, position);
+      }
+      millisOfDay /= 1000;
+      position = writeDigits(millisOfDay % 60, 2, dest, position);
+      position = writeDigits(millisOfDay / 60 % 60, 2, dest, position);
+      writeDigits(millisOfDay / 3600, 2, dest, position);
+    }
+
+    /**
+     * Write the HHmmss or HHmmssSSS digits starting at the offset.
+     */
+    private void writeTime(DateCache cache, long epochMillis, byte[] dest, int offset) {
+      int millisOfDay = cache.millisOfDay(epochMillis);
+      int position = offset + length - NumberConstants.EIGHT;
+      if (length == NumberConstants.SEVENTEEN) {
+        position = writeDigits(millisOfDay % 1000, 3, dest, position);
+      }
+      millisOfDay /= 1000;
+      position = writeDigits(millisOfDay % 60, 2, dest, position);
+      position = writeDigits(millisOfDay / 60 % 60, 2, dest, position);
+      writeDigits(millisOfDay / 3600, 2, dest, position);
+    }
+
+    /**
+     * Returns the date cache covering the epoch milliseconds, replacing it when the date or the
+     * zone offset has changed.
+     */
+    private DateCache getDateCache(long epochMillis) {
+      final DateCache cache = dateCache;
+      if (epochMillis >= cache.start && epochMillis < cache.end) {
+        return cache;
+      }
+      final Instant instant = Instant.ofEpochMilli(epochMillis);
+      final int offsetMillis =
+          (int) (rules.getOffset(instant).getTotalSeconds() * MILLIS_PER_SECOND);
+      final long epochDay = Math.floorDiv(epochMillis + offsetMillis, MILLIS_PER_DAY);
+      long start = epochDay * MILLIS_PER_DAY - offsetMillis;
+      long end = start + MILLIS_PER_DAY;
+      final ZoneOffsetTransition previous = rules.previousTransition(instant.plusMillis(1));
+      if (previous != null && previous.toEpochSecond() * MILLIS_PER_SECOND > start) {
+        start = previous.toEpochSecond() * MILLIS_PER_SECOND;
+      }
+      final ZoneOffsetTransition next = rules.nextTransition(instant);
+      if (next != null && next.toEpochSecond() * MILLIS_PER_SECOND < end) {
+        end = next.toEpochSecond() * MILLIS_PER_SECOND;
+      }
+      final LocalDate date = LocalDate.ofEpochDay(epochDay);
+      char[] digits = null;
+      // yyyy is the year of era, DateTimeFormatter prints year 0 as 0001 (BC)
+      if (date.getYear() >= 1 && date.getYear() <= 9999) {
+        digits = new char[NumberConstants.EIGHT];
+        writeDigits(date.getDayOfMonth(), 2, digits, 8);
+        writeDigits(date.getMonthValue(), 2, digits, 6);
+        writeDigits(date.getYear(), 4, digits, 4);
+      }
+      final DateCache newCache = new DateCache(start, end, offsetMillis, digits);
+      dateCache = newCache;
+      return newCache;
+    }
+  }
+
+  /**
+   * The date digits of an interval with a constant date and zone offset.
+   */
+  private static final class DateCache {
+
+    /**
+     * The first epoch milliseconds of the interval
+     */
+    private final long start;
+
+    /**
+     * The epoch milliseconds after the interval
+     */
+    private final long end;
+
+    private final int offsetMillis;
+
+    /**
+     * The yyyyMMdd digits, {@code null} if the year is outside 0001 to 9999
+     */
+    private final char[] digits;
+
+    DateCache(long start, long end, int offsetMillis, char[] digits) {
+      this.start = start;
+      this.end = end;
+      this.offsetMillis = offsetMillis;
+      this.digits = digits;
+    }
+
+    int millisOfDay(long epochMillis) {
+      return (int) Math.floorMod(epochMillis + offsetMillis, MILLIS_PER_DAY);
+    }
+  }
+
+  /**
+   * The formatter of any other pattern, backed by a {@link DateTimeFormatter}.
+   */
+  private static final class PatternTimestampFormatter extends TimestampFormatter {
+
+    private final DateTimeFormatter formatter;
+
+    private final ZoneId zone;
+
+    PatternTimestampFormatter(String pattern, ZoneId zone) {
+      super(pattern);
+      this.formatter = DateTimeUtils.getFormatter(pattern);
+      this.zone = zone;
+    }
+
+    @Override
+    public String format(long epochMillis) {
+      return formatter.format(toLocalDateTime(epochMillis));
+    }
+
+    @Override
+    public int formatTo(long epochMillis, char[] dest, int offset) {
+      final String value = format(epochMillis);
+      value.getChars(0, value.length(), dest, offset);
+      return offset + value.length();
+    }
+
+    @Override
+    public int formatTo(long epochMillis, byte[] dest, int offset) {
+      final String value = format(epochMillis);
+      for (int i = 0; i < value.length(); i++) {
+        final char c = value.charAt(i);
+        dest[offset + i] = c < 0x80 ? (byte) c : (byte) '?';
+      }
+      return offset + value.length();
+    }
+
+    @Override
+    public void formatTo(long epochMillis, Appendable appendable) {
+      formatter.formatTo(toLocalDateTime(epochMillis), appendable);
+    }
+
+    private LocalDateTime toLocalDateTime(long epochMillis) {
+      return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), zone);
+    }
+  }
+
+  /**
+   * Write the zero padded digits of a non-negative value backwards, ending before the position.
+   *
+   * @return the position of the first digit written
+   */
+  private static int writeDigits(int value, int width, char[] dest, int position) {
+    for (int i = 0; i < width; i++) {
+      dest[--position] = (char) ('0' + value % 10);
+      value /= 10;
+    }
+    return position;
+  }
+
+  /**
+   * Write the zero padded digits of a non-negative value backwards, ending before the position.
+   *
+   * @return the position of the first digit written
+   */
+  private static int writeDigits(int value, int width, byte[] dest, int position) {
+    for (int i = 0; i < width; i++) {
+      dest[--position] = (byte) ('0' + value % 10);
+      value /= 10;
+    }
+    return position;
+  }
+
+  private static void appendTwoDigits(int value, Appendable appendable) throws IOException {
+    appendable.append((char) ('0' + value / 10));
+    appendable.append((char) ('0' + value % 10));
+  }
+
+}
@@ -1,56 +1,59 @@
 package cn.maiaimei.commons.lang.utils;
 
 import cn.maiaimei.commons.lang.constants.NumberConstants;
-import cn.maiaimei.commons.lang.constants.StringConstants;
-import com.google.common.collect.Maps;
-import java.util.ArrayList;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.function.Consumer;
 import org.springframework.util.Assert;
 
 /**
  * Miscellaneous value expression utility methods.
+ * <p>
+ * The {@code parse} methods keep the compiled form of recently used expression strings in a
+ * bounded cache, see {@link #setCacheMaximumSize(long)}.
  */
 public final class ValueExpressionUtils {
 
   /**
-   * A string that satisfies the ${key} condition, where key is an alphabet, number, etc
-   */
-  private static final Pattern KEY_PATTERN = Pattern.compile("\\$\\{[^}]*\\}");
-
-  /**
-   * The key prefix: ${
+   * AtomicInteger
    */
-  private static final Pattern KEY_PATTERN_PREFIX = Pattern.compile("\\$\\{");
+  static final AtomicInteger ATOMIC_INTEGER = new AtomicInteger(NumberConstants.ZERO);
 
   /**
-   * The key subfix: }
+   * The default maximum number of compiled expressions kept in the cache
    */
-  private static final Pattern KEY_PATTERN_SUBFIX = Pattern.compile("\\}");
+  public static final long DEFAULT_CACHE_MAXIMUM_SIZE = 256;
 
   /**
-   * The key format
+   * The maximum size of {@link #cache}, {@code 0} if caching is disabled
    */
-  private static final String KEY_FORMAT = "${%s}";
+  private static long cacheMaximumSize = DEFAULT_CACHE_MAXIMUM_SIZE;
 
   /**
-   * The key: currentTimestamp
+   * The least recently used cache of compiled expressions, keyed by expression string, {@code null}
+   * if caching is disabled. It is replaced rather than cleared when a resolver is registered, so a
+   * compilation racing with the registration can only fill the discarded cache.
    */
-  private static final String KEY_CURRENTTIMESTAMP = "currentTimestamp";
+  private static volatile Cache<String, CompiledExpression> cache =
+      newCache(DEFAULT_CACHE_MAXIMUM_SIZE);
 
   /**
-   * The key: serialNumber
+   * The registered placeholder resolvers, keyed by placeholder name
    */
-  private static final String KEY_SERIAL_NUMBER = "serialNumber";
+  private static final Map<String, PlaceholderResolver> RESOLVERS = new ConcurrentHashMap<>();
 
-  /**
-   * AtomicInteger
-   */
-  private static final AtomicInteger ATOMIC_INTEGER = new AtomicInteger(NumberConstants.ZERO);
+  static {
+    registerResolver(PlaceholderResolvers.CURRENT_TIMESTAMP);
+    registerResolver(PlaceholderResolvers.SERIAL_NUMBER);
+  }
 
   /**
    * Private constructors ensure that classes cannot be instantiated
@@ -77,12 +80,7 @@ public final class ValueExpressionUtils {
    * @return a new string without placeholder
    */
   public static String parse(String expressionString, AtomicInteger atomicInteger) {
-    final List<String> keys = findKeys(expressionString);
-    final Map<String, String> params = resolveKeys(keys, atomicInteger);
-    for (Entry<String, String> entry : params.entrySet()) {
-      expressionString = expressionString.replace(entry.getKey(), entry.getValue());
-    }
-    return expressionString;
+    return getCompiledExpression(expressionString).render(atomicInteger);
   }
 
   /**
@@ -106,90 +104,169 @@ public final class ValueExpressionUtils {
    */
   public static String parse(String expressionString, Map<String, String> params,
       AtomicInteger atomicInteger) {
-    final List<String> keys = findKeys(expressionString);
-    final Map<String, String> allParams = resolveKeys(keys, atomicInteger);
-    params.forEach((key, value) -> allParams.put(String.format(KEY_FORMAT, key), value));
-    for (Entry<String, String> entry : allParams.entrySet()) {
-      expressionString = expressionString.replace(entry.getKey(), entry.getValue());
-    }
-    return expressionString;
+    return getCompiledExpression(expressionString).render(params, atomicInteger);
+  }
+
+  /**
+   * Replace placeholders with real values
+   *
+   * @param expressionString the expression string to use
+   * @param params           the params lookup to use, such as {@code map::get}
+   * @return a new string without placeholder
+   */
+  public static String parse(String expressionString, ParamLookup params) {
+    return getCompiledExpression(expressionString).render(params, ATOMIC_INTEGER);
+  }
+
+  /**
+   * Replace placeholders with real values once for every params of the batch, reading the clock
+   * once and reserving the serial numbers of the whole batch with a single atomic step.
+   *
+   * @param expressionString the expression string to use
+   * @param params           the params of every item of the batch
+   * @return the new strings without placeholder, in the order of the params
+   */
+  public static String[] renderBatch(String expressionString,
+      List<? extends Map<String, String>> params) {
+    return renderBatch(expressionString, params, ATOMIC_INTEGER);
+  }
+
+  /**
+   * Replace placeholders with real values once for every params of the batch, reading the clock
+   * once and reserving the serial numbers of the whole batch with a single atomic step.
+   *
+   * @param expressionString the expression string to use
+   * @param params           the params of every item of the batch
+   * @param atomicInteger    the atomicInteger to use
+   * @return the new strings without placeholder, in the order of the params
+   */
+  public static String[] renderBatch(String expressionString,
+      List<? extends Map<String, String>> params, AtomicInteger atomicInteger) {
+    return getCompiledExpression(expressionString).renderBatch(params, atomicInteger);
   }
 
   /**
-   * Find all strings that satisfies the ${key} condition, where key is an alphabet, number, etc
+   * Replace placeholders with real values once for every params of the batch and hand each new
+   * string to the consumer, reading the clock once and reserving the serial numbers of the whole
+   * batch with a single atomic step.
    *
    * @param expressionString the expression string to use
-   * @return a list of key
-   */
-  private static List<String> findKeys(String expressionString) {
-    Matcher matcher = KEY_PATTERN.matcher(expressionString);
-    List<String> keys = new ArrayList<>();
-    while (matcher.find()) {
-      final String key = matcher.group();
-      if (StringUtils.hasText(key)) {
-        keys.add(key);
-      }
+   * @param params           the params of every item of the batch
+   * @param atomicInteger    the atomicInteger to use
+   * @param consumer         the consumer of the new strings, called in the order of the params
+   */
+  public static void renderBatch(String expressionString,
+      List<? extends Map<String, String>> params, AtomicInteger atomicInteger,
+      Consumer<String> consumer) {
+    getCompiledExpression(expressionString).renderBatch(params, atomicInteger, consumer);
+  }
+
+  /**
+   * Compile the expression string into a reusable {@link CompiledExpression}, so that repeated
+   * renders skip scanning the expression string for placeholders.
+   *
+   * @param expressionString the expression string to use
+   * @return an immutable, thread-safe compiled expression
+   */
+  public static CompiledExpression compile(String expressionString) {
+    return CompiledExpression.compile(expressionString, RESOLVERS);
+  }
+
+  /**
+   * Register a placeholder resolver, replacing any resolver registered with the same name. The
+   * resolver applies to expressions compiled afterwards, so the compiled expression cache and its
+   * statistics are discarded.
+   *
+   * @param resolver the resolver to register, must not be {@code null}
+   */
+  public static synchronized void registerResolver(PlaceholderResolver resolver) {
+    Assert.notNull(resolver, "resolver must not be null");
+    Assert.hasText(resolver.getName(),
+        "name must not be null and must contain at least one non-whitespace character");
+    RESOLVERS.put(resolver.getName(), resolver);
+    // a new cache, published after the resolver, only holds expressions compiled with it
+    setCacheMaximumSize(cacheMaximumSize);
+  }
+
+  /**
+   * Unregister the placeholder resolver with the given name. Expressions compiled afterwards leave
+   * its placeholders unresolved, so the compiled expression cache and its statistics are discarded.
+   *
+   * @param name the name of the resolver to unregister
+   * @return {@code true} if a resolver was registered with the name
+   */
+  public static synchronized boolean unregisterResolver(String name) {
+    Assert.notNull(name, "name must not be null");
+    if (RESOLVERS.remove(name) == null) {
+      return false;
     }
-    return keys;
+    setCacheMaximumSize(cacheMaximumSize);
+    return true;
   }
 
   /**
-   * extract key
+   * Set the maximum number of compiled expressions that {@code parse} keeps in its cache, the least
+   * recently used expressions are evicted first. The current cache and its statistics are
+   * discarded.
    *
-   * @param key the key to use
-   * @return a key without ${ and }
+   * @param maximumSize the maximum size of the cache, {@code 0} disables caching
    */
-  private static String extractKey(String key) {
-    return KEY_PATTERN_SUBFIX.matcher(
-            KEY_PATTERN_PREFIX.matcher(key).replaceAll(StringConstants.EMPTY))
-        .replaceAll(StringConstants.EMPTY);
+  public static synchronized void setCacheMaximumSize(long maximumSize) {
+    Assert.isTrue(maximumSize >= NumberConstants.ZERO, "maximumSize must not be negative");
+    cacheMaximumSize = maximumSize;
+    cache = maximumSize == NumberConstants.ZERO ? null : newCache(maximumSize);
   }
 
   /**
-   * resolve keys
+   * Returns the hit, miss and eviction counters of the compiled expression cache.
    *
-   * @param keys          the list of key to use
-   * @param atomicInteger the atomicInteger to use
-   * @return a key value pairs
-   */
-  private static Map<String, String> resolveKeys(List<String> keys, AtomicInteger atomicInteger) {
-    final Map<String, String> params = Maps.newHashMap();
-    for (String key : keys) {
-      final String shortKey = extractKey(key);
-      if (shortKey.startsWith(KEY_CURRENTTIMESTAMP)) {
-        params.put(key, resolveDateTime(shortKey));
-      } else if (shortKey.startsWith(KEY_SERIAL_NUMBER)) {
-        params.put(key, resolveSerialNumber(shortKey, atomicInteger));
-      }
+   * @return a snapshot of the cache statistics, all zero if caching is disabled
+   */
+  public static CacheStats getCacheStats() {
+    final Cache<String, CompiledExpression> current = cache;
+    return current == null ? new CacheStats(0, 0, 0, 0, 0, 0) : current.stats();
+  }
+
+  /**
+   * Discards all compiled expressions in the cache.
+   */
+  public static void invalidateCache() {
+    final Cache<String, CompiledExpression> current = cache;
+    if (current != null) {
+      current.invalidateAll();
     }
-    return params;
   }
 
   /**
-   * resolve date and time
+   * Get the compiled expression from the cache, compiling and caching it on a miss.
    *
-   * @param shortKey the shortKey to use
-   * @return the actual value of date and time
+   * @param expressionString the expression string to use
+   * @return a compiled expression
    */
-  private static String resolveDateTime(String shortKey) {
-    final String[] split = StringUtils.split(shortKey, StringConstants.MAPPING);
-    Assert.notNull(split, "Invalid currentTimestamp key");
-    final String pattern = split[NumberConstants.ONE];
-    return DateTimeUtils.formatNow(pattern);
+  private static CompiledExpression getCompiledExpression(String expressionString) {
+    final Cache<String, CompiledExpression> current = cache;
+    if (current == null || expressionString == null) {
+      return compile(expressionString);
+    }
+    try {
+      return current.get(expressionString, () -> compile(expressionString));
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw new IllegalStateException(e.getCause());
+    }
   }
 
   /**
-   * resolve serial number
+   * Create a cache of compiled expressions with the given maximum size.
    *
-   * @param shortKey      the shortKey to use
-   * @param atomicInteger the atomicInteger to use
-   * @return the actual value of serial number
-   */
-  private static String resolveSerialNumber(String shortKey, AtomicInteger atomicInteger) {
-    final String[] split = StringUtils.split(shortKey, StringConstants.MAPPING);
-    Assert.notNull(split, "Invalid serialNumber key");
-    final String format = split[NumberConstants.ONE];
-    return String.format(format, atomicInteger.getAndIncrement());
+   * @param maximumSize the maximum size of the cache
+   * @return a new cache recording statistics
+   */
+  private static Cache<String, CompiledExpression> newCache(long maximumSize) {
+    return CacheBuilder.newBuilder()
+        .maximumSize(maximumSize)
+        .recordStats()
+        .build();
   }
 
 }
@@ -0,0 +1,55 @@
+package cn.maiaimei.commons.lang.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import cn.maiaimei.commons.lang.constants.DateTimeConstants;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import org.junit.jupiter.api.Test;
+
+public class DateTimeUtilsTest {
+
+  @Test
+  public void testGetFormatter() {
+    assertSame(DateTimeUtils.getFormatter(DateTimeConstants.YYYYMMDD),
+        DateTimeUtils.getFormatter(DateTimeConstants.YYYYMMDD));
+  }
+
+  @Test
+  public void testFormatNow() {
+    DateTimeFormatter formatter = DateTimeFormatter.ofPattern(DateTimeConstants.YYYYMMDD);
+    assertEquals(formatter.format(LocalDateTime.now()),
+        DateTimeUtils.formatNow(DateTimeConstants.YYYYMMDD));
+  }
+
+  @Test
+  public void testCoarseClock() throws InterruptedException {
+    DateTimeUtils.enableCoarseClock(1);
+    try {
+      assertTrue(DateTimeUtils.isCoarseClockEnabled());
+      final String first = DateTimeUtils.formatNow(DateTimeConstants.YYYYMMDDHHMMSSSSS);
+      Thread.sleep(50);
+      assertNotEquals(first, DateTimeUtils.formatNow(DateTimeConstants.YYYYMMDDHHMMSSSSS));
+    } finally {
+      DateTimeUtils.disableCoarseClock();
+    }
+    assertFalse(DateTimeUtils.isCoarseClockEnabled());
+  }
+
+  @Test
+  public void testCoarseClockBeyondMaximumPatterns() {
+    final String year = DateTimeFormatter.ofPattern("yyyy").format(LocalDateTime.now());
+    DateTimeUtils.enableCoarseClock(1000);
+    try {
+      for (int i = 0; i < DateTimeUtils.MAXIMUM_PATTERNS * 2; i++) {
+        assertEquals(i + year, DateTimeUtils.formatNow("'" + i + "'yyyy"));
+      }
+    } finally {
+      DateTimeUtils.disableCoarseClock();
+    }
+  }
+}
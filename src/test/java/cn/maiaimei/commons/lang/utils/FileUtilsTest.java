@@ -1,11 +1,31 @@
 package cn.maiaimei.commons.lang.utils;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import cn.maiaimei.commons.lang.constants.FileConstants;
 import cn.maiaimei.commons.lang.constants.NumberConstants;
+import cn.maiaimei.commons.lang.exception.FileSystemOperationException;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 public class FileUtilsTest {
 
@@ -17,4 +37,133 @@ public class FileUtilsTest {
         "C:\\Users\\lenovo\\Desktop\\tmp\\", "pdf");
     assertTrue(fileName.endsWith(FileConstants.PDF));
   }
+
+  @Test
+  public void testGetBytes(@TempDir Path dir) throws IOException {
+    final byte[] data = RandomStringUtils.randomAlphanumeric(100_000)
+        .getBytes(StandardCharsets.UTF_8);
+    final Path file = Files.write(dir.resolve("data.txt"), data);
+    assertArrayEquals(data, FileUtils.getBytes(file.toFile()));
+    assertArrayEquals(data, FileUtils.getBytes(file.toString()));
+    final Path empty = Files.createFile(dir.resolve("empty.txt"));
+    assertEquals(0, FileUtils.getBytes(empty.toFile()).length);
+    assertThrows(FileSystemOperationException.class,
+        () -> FileUtils.getBytes(dir.resolve("missing.txt").toFile()));
+  }
+
+  @Test
+  public void testMapReadOnly(@TempDir Path dir) throws IOException {
+    final byte[] data = RandomStringUtils.randomAlphanumeric(10_000)
+        .getBytes(StandardCharsets.UTF_8);
+    final Path file = Files.write(dir.resolve("data.txt"), data);
+    final MappedByteBuffer buffer = FileUtils.mapReadOnly(file.toFile());
+    final byte[] mapped = new byte[buffer.remaining()];
+    buffer.get(mapped);
+    assertArrayEquals(data, mapped);
+    assertFalse(FileUtils.unmap(buffer.duplicate()));
+    assertTrue(FileUtils.unmap(buffer));
+    assertFalse(FileUtils.unmap(ByteBuffer.allocate(1)));
+
+    final List<MappedByteBuffer> segments = FileUtils.mapReadOnlySegments(file.toFile(), 4096);
+    assertEquals(3, segments.size());
+    assertEquals(10_000 - 2 * 4096, segments.get(2).remaining());
+    final ByteBuffer joined = ByteBuffer.allocate(data.length);
+    segments.forEach(joined::put);
+    assertArrayEquals(data, joined.array());
+    segments.forEach(FileUtils::unmap);
+    Files.delete(file);
+  }
+
+  @Test
+  public void testLines(@TempDir Path dir) throws IOException {
+    final Path file = Files.write(dir.resolve("data.csv"),
+        "id,name\r\n1,\u4e2d\u6587\n\n2,b\r3,c".getBytes(StandardCharsets.UTF_8));
+    final List<String> expected = Arrays.asList("id,name", "1,\u4e2d\u6587", "", "2,b", "3,c");
+    try (Stream<String> lines = FileUtils.lines(file.toFile())) {
+      assertEquals(expected, lines.collect(Collectors.toList()));
+    }
+    final List<String> visited = new ArrayList<>();
+    FileUtils.forEachLine(file.toFile(), line -> visited.add(line.toString()));
+    assertEquals(expected, visited);
+    Files.delete(file);
+
+    final Path empty = Files.createFile(dir.resolve("empty.txt"));
+    try (Stream<String> lines = FileUtils.lines(empty.toFile(), StandardCharsets.UTF_8)) {
+      assertEquals(0, lines.count());
+    }
+    assertThrows(FileSystemOperationException.class,
+        () -> FileUtils.lines(dir.resolve("missing.txt").toFile()));
+  }
+
+  @Test
+  public void testLineReader() throws IOException {
+    final String[] characters = {"a", "b", "\u00e9", "\u4e2d", "\ud83d\ude00"};
+    final StringBuilder builder = new StringBuilder();
+    final List<String> expected = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      final StringBuilder line = new StringBuilder();
+      for (int j = 0; j < i % 37; j++) {
+        line.append(characters[(i + j) % characters.length]);
+      }
+      expected.add(line.toString());
+      builder.append(line).append(i % 3 == 0 ? "\r\n" : i % 3 == 1 ? "\n" : "\r");
+    }
+    final byte[] data = builder.toString().getBytes(StandardCharsets.UTF_8);
+    // a tiny buffer splits line terminators and multi-byte characters across reads
+    try (LineReader reader = new LineReader(
+        Channels.newChannel(new ByteArrayInputStream(data)), StandardCharsets.UTF_8, 5)) {
+      assertEquals(expected, readLines(reader));
+    }
+    try (LineReader reader = new LineReader(ByteBuffer.wrap(data), StandardCharsets.UTF_8)) {
+      assertEquals(expected, readLines(reader));
+    }
+    // a surrogate pair that does not fit in the last free slot of the char array
+    final String surrogates = repeat('x', LineReader.DEFAULT_BUFFER_SIZE - 1) + "\ud83d\ude00";
+    final byte[] overflow = (surrogates + "\nend").getBytes(StandardCharsets.UTF_8);
+    try (LineReader reader = new LineReader(
+        Channels.newChannel(new ByteArrayInputStream(overflow)), StandardCharsets.UTF_8,
+        LineReader.DEFAULT_BUFFER_SIZE)) {
+      assertEquals(Arrays.asList(surrogates, "end"), readLines(reader));
+    }
+    try (LineReader reader = new LineReader(Channels.newChannel(new ByteArrayInputStream(
+        ("abc\ud83d\ude00").getBytes(StandardCharsets.UTF_8))), StandardCharsets.UTF_8, 4)) {
+      assertEquals(Collections.singletonList("abc\ud83d\ude00"), readLines(reader));
+    }
+  }
+
+  private static String repeat(char c, int count) {
+    final char[] chars = new char[count];
+    Arrays.fill(chars, c);
+    return new String(chars);
+  }
+
+  private static List<String> readLines(LineReader reader) throws IOException {
+    final List<String> lines = new ArrayList<>();
+    CharSequence line;
+    while ((line = reader.readLine()) != null) {
+      lines.add(line.toString());
+    }
+    return lines;
+  }
+
+  @Test
+  public void testWriteAtomically(@TempDir Path dir) throws IOException {
+    final Path file = dir.resolve("out").resolve("data.txt");
+    FileUtils.writeAtomically(file.toFile(), "first".getBytes(StandardCharsets.UTF_8), true);
+    assertEquals("first", FileUtils.readFileToString(file.toFile()));
+    final ByteBuffer buffer = ByteBuffer.wrap("--second--".getBytes(StandardCharsets.UTF_8));
+    buffer.position(2).limit(8);
+    FileUtils.writeAtomically(file.toFile(), buffer, false);
+    assertEquals(2, buffer.position());
+    assertEquals("second", FileUtils.readFileToString(file.toFile()));
+    FileUtils.writeStringToFileAtomically(file.toString(), "\u4e2d\u6587", StandardCharsets.UTF_8,
+        true);
+    assertEquals("\u4e2d\u6587", FileUtils.readFileToString(file.toFile()));
+    // no temporary file is left behind
+    try (Stream<Path> files = Files.list(file.getParent())) {
+      assertEquals(1, files.count());
+    }
+    assertThrows(FileSystemOperationException.class,
+        () -> FileUtils.writeAtomically(dir.toFile(), new byte[1], false));
+  }
 }
@@ -0,0 +1,135 @@
+package cn.maiaimei.commons.lang.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import cn.maiaimei.commons.lang.constants.FileExtensionEnum;
+import cn.maiaimei.commons.lang.exception.FileSystemOperationException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class FileWalkerTest {
+
+  private static final int FILES_PER_DIRECTORY = 1500;
+
+  /**
+   * Create root/{a.csv,b.TXT,c.pdf}, root/in/{0..1499}.csv and root/in/sub/{d.csv,e.json}.
+   */
+  private static Path createTree(Path root) throws IOException {
+    final Path in = Files.createDirectories(root.resolve("in").resolve("sub"));
+    for (String name : Arrays.asList("a.csv", "b.TXT", "c.pdf")) {
+      Files.write(root.resolve(name), name.getBytes());
+    }
+    for (int i = 0; i < FILES_PER_DIRECTORY; i++) {
+      Files.createFile(in.getParent().resolve(i + ".csv"));
+    }
+    Files.createFile(in.resolve("d.csv"));
+    Files.createFile(in.resolve("e.json"));
+    return root;
+  }
+
+  private static Set<String> names(Stream<FileWalker.Entry> entries) {
+    try (Stream<FileWalker.Entry> stream = entries) {
+      return stream.map(entry -> entry.getPath().getFileName().toString())
+          .collect(Collectors.toSet());
+    }
+  }
+
+  @Test
+  public void testWalk(@TempDir Path dir) throws IOException {
+    final Path root = createTree(dir);
+    assertEquals(FILES_PER_DIRECTORY + 5, names(FileUtils.walk(root.toFile())).size());
+    assertEquals(FILES_PER_DIRECTORY + 2,
+        names(FileUtils.walk(root.toFile(), FileExtensionEnum.CSV)).size());
+    assertEquals(new HashSet<>(Arrays.asList("a.csv", "b.TXT")), names(FileWalker.builder()
+        .maxDepth(1).extensions(FileExtensionEnum.CSV, FileExtensionEnum.TXT).build()
+        .walk(root)));
+    assertEquals(new HashSet<>(Arrays.asList("a.csv", "b.TXT", "c.pdf", "d.csv", "e.json")),
+        names(FileWalker.builder().glob("[a-z].*").build().walk(root)));
+    assertEquals(new HashSet<>(Arrays.asList("in", "sub")), names(FileWalker.builder()
+        .includeDirectories(true).build().walk(root)
+        .filter(entry -> entry.getAttributes().isDirectory())));
+
+    try (Stream<FileWalker.Entry> entries = FileUtils.walk(root.toFile())) {
+      final FileWalker.Entry entry = entries.filter(e -> e.getDepth() == 3).findFirst().get();
+      assertTrue(entry.getAttributes().isRegularFile());
+      assertEquals(root.resolve("in").resolve("sub"), entry.getPath().getParent());
+    }
+    assertThrows(FileSystemOperationException.class,
+        () -> FileUtils.walk(root.resolve("missing").toFile()));
+  }
+
+  @Test
+  public void testForEachParallel(@TempDir Path dir) throws IOException {
+    final Path root = createTree(dir);
+    final ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      final Set<Path> visited = ConcurrentHashMap.newKeySet();
+      FileWalker.builder().pool(pool).extensions(FileExtensionEnum.CSV).build()
+          .forEachParallel(root, entry -> assertTrue(visited.add(entry.getPath())));
+      final List<Path> expected;
+      try (Stream<FileWalker.Entry> entries = FileUtils.walk(root.toFile(),
+          FileExtensionEnum.CSV)) {
+        expected = entries.map(FileWalker.Entry::getPath).collect(Collectors.toList());
+      }
+      assertEquals(new HashSet<>(expected), visited);
+
+      FileUtils.cleanDirectory(root.resolve("in").toFile(), pool);
+      assertTrue(Files.isDirectory(root.resolve("in")));
+      assertEquals(0, FileUtils.listFiles(root.resolve("in").toString()).size());
+      FileUtils.deleteDirectory(root.toFile(), pool);
+      assertFalse(Files.exists(root));
+      FileUtils.deleteDirectory(root.toFile(), pool);
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void testForEachParallelFailure(@TempDir Path dir) throws IOException {
+    final Path root = createTree(dir);
+    final ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      final AtomicInteger visited = new AtomicInteger();
+      final IllegalStateException failure = assertThrows(IllegalStateException.class,
+          () -> FileWalker.builder().pool(pool).build().forEachParallel(root, entry -> {
+            if (entry.getDepth() == 1 && entry.getAttributes().isRegularFile()) {
+              throw new IllegalStateException(entry.getPath().toString());
+            }
+            sleep();
+            visited.incrementAndGet();
+          }));
+      assertNotNull(failure.getMessage());
+      // the walk of the subdirectories is over once the failure reaches the caller
+      final int count = visited.get();
+      assertTrue(pool.awaitQuiescence(10, TimeUnit.SECONDS));
+      assertEquals(count, visited.get());
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  private static void sleep() {
+    try {
+      Thread.sleep(1);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,241 @@
+package cn.maiaimei.commons.lang.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class GroupCommitWriterTest {
+
+  private static final int THREADS = 8;
+
+  private static final int WRITES = 200;
+
+  @Test
+  public void testWrite(@TempDir Path dir) throws Exception {
+    final File file = dir.resolve("journal").resolve("records.log").toFile();
+    final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try (GroupCommitWriter writer = FileUtils.newGroupCommitWriter(file, true)) {
+      final List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < THREADS; t++) {
+        final int thread = t;
+        futures.add(executor.submit(() -> {
+          for (int i = 0; i < WRITES; i++) {
+            writer.write(("record-" + thread + "-" + i + "\n").getBytes(StandardCharsets.UTF_8));
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+    final List<String> expected = IntStream.range(0, THREADS).boxed()
+        .flatMap(t -> IntStream.range(0, WRITES).mapToObj(i -> "record-" + t + "-" + i))
+        .sorted()
+        .collect(Collectors.toList());
+    final List<String> lines = new ArrayList<>(Files.readAllLines(file.toPath()));
+    Collections.sort(lines);
+    assertEquals(expected, lines);
+  }
+
+  @Test
+  public void testBatch(@TempDir Path dir) throws Exception {
+    final CountDownLatch writing = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    final FileChannel file = FileChannel.open(dir.resolve("records.log"),
+        StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    final ExecutorService executor = Executors.newFixedThreadPool(THREADS + 1);
+    try (GroupCommitWriter writer = new GroupCommitWriter(new BlockingChannel(file, writing,
+        release), false)) {
+      final List<Future<?>> futures = new ArrayList<>();
+      futures.add(executor.submit(() -> writer.write(new byte[]{'a'})));
+      writing.await();
+      // the first batch is held in the channel, the other writes queue up behind it
+      for (int t = 0; t < THREADS; t++) {
+        futures.add(executor.submit(() -> writer.write(new byte[]{'b'})));
+      }
+      while (writer.getPendingCount() < THREADS) {
+        Thread.sleep(1);
+      }
+      release.countDown();
+      for (Future<?> future : futures) {
+        future.get();
+      }
+      assertEquals(2, writer.getBatchCount());
+    } finally {
+      executor.shutdown();
+    }
+    assertEquals(THREADS + 1, Files.size(dir.resolve("records.log")));
+  }
+
+  @Test
+  public void testAppend(@TempDir Path dir) throws IOException {
+    final File file = Files.write(dir.resolve("records.log"),
+        "a\n".getBytes(StandardCharsets.UTF_8)).toFile();
+    final GroupCommitWriter writer = FileUtils.newGroupCommitWriter(file, false);
+    final ByteBuffer buffer = ByteBuffer.wrap("xb\n".getBytes(StandardCharsets.UTF_8));
+    buffer.position(1);
+    writer.write(buffer);
+    assertEquals(1, buffer.position());
+    assertEquals(1, writer.getBatchCount());
+    writer.close();
+    writer.close();
+    assertEquals("a\nb\n", FileUtils.readFileToString(file));
+    assertThrows(IllegalStateException.class, () -> writer.write(new byte[1]));
+  }
+
+  @Test
+  public void testWriteWhileInterrupted(@TempDir Path dir) {
+    final File file = dir.resolve("records.log").toFile();
+    try (GroupCommitWriter writer = FileUtils.newGroupCommitWriter(file, true)) {
+      Thread.currentThread().interrupt();
+      try {
+        writer.write("a\n".getBytes(StandardCharsets.UTF_8));
+        assertTrue(Thread.currentThread().isInterrupted());
+      } finally {
+        Thread.interrupted();
+      }
+      writer.write("b\n".getBytes(StandardCharsets.UTF_8));
+    }
+    assertEquals("a\nb\n", FileUtils.readFileToString(file));
+  }
+
+  /**
+   * A file channel whose first gathering write waits for a latch.
+   */
+  private static final class BlockingChannel extends FileChannel {
+
+    private final FileChannel channel;
+    private final CountDownLatch writing;
+    private final CountDownLatch release;
+
+    BlockingChannel(FileChannel channel, CountDownLatch writing, CountDownLatch release) {
+      this.channel = channel;
+      this.writing = writing;
+      this.release = release;
+    }
+
+    @Override
+    public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+      if (writing.getCount() > 0) {
+        writing.countDown();
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          throw new InterruptedIOException();
+        }
+      }
+      return channel.write(srcs, offset, length);
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+      return channel.write(src);
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+      return channel.read(dst);
+    }
+
+    @Override
+    public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+      return channel.read(dsts, offset, length);
+    }
+
+    @Override
+    public long position() throws IOException {
+      return channel.position();
+    }
+
+    @Override
+    public FileChannel position(long newPosition) throws IOException {
+      channel.position(newPosition);
+      return this;
+    }
+
+    @Override
+    public long size() throws IOException {
+      return channel.size();
+    }
+
+    @Override
+    public FileChannel truncate(long size) throws IOException {
+      channel.truncate(size);
+      return this;
+    }
+
+    @Override
+    public void force(boolean metaData) throws IOException {
+      channel.force(metaData);
+    }
+
+    @Override
+    public long transferTo(long position, long count, WritableByteChannel target)
+        throws IOException {
+      return channel.transferTo(position, count, target);
+    }
+
+    @Override
+    public long transferFrom(ReadableByteChannel src, long position, long count)
+        throws IOException {
+      return channel.transferFrom(src, position, count);
+    }
+
+    @Override
+    public int read(ByteBuffer dst, long position) throws IOException {
+      return channel.read(dst, position);
+    }
+
+    @Override
+    public int write(ByteBuffer src, long position) throws IOException {
+      return channel.write(src, position);
+    }
+
+    @Override
+    public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+      return channel.map(mode, position, size);
+    }
+
+    @Override
+    public FileLock lock(long position, long size, boolean shared) throws IOException {
+      return channel.lock(position, size, shared);
+    }
+
+    @Override
+    public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+      return channel.tryLock(position, size, shared);
+    }
+
+    @Override
+    protected void implCloseChannel() throws IOException {
+      channel.close();
+    }
+  }
+}
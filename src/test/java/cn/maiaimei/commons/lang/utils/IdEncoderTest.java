@@ -0,0 +1,73 @@
+package cn.maiaimei.commons.lang.utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigInteger;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class IdEncoderTest {
+
+  private static final BigInteger TWO_64 = BigInteger.ONE.shiftLeft(64);
+
+  @Test
+  public void testEncode() {
+    for (IdEncoder encoder : new IdEncoder[]{IdEncoder.BASE32, IdEncoder.BASE62}) {
+      final int radix = encoder == IdEncoder.BASE32 ? 32 : 62;
+      final Random random = new Random(42);
+      String previous = null;
+      BigInteger previousValue = null;
+      for (int i = 0; i < 10_000; i++) {
+        final long id = i < 3 ? new long[]{0L, -1L, Long.MAX_VALUE}[i] : random.nextLong();
+        final String text = encoder.encode(id);
+        assertEquals(encoder.getWidth(), text.length());
+        assertEquals(id, encoder.decode(text));
+        final BigInteger value = new BigInteger(Long.toUnsignedString(id));
+        if (previous != null) {
+          assertEquals(Integer.signum(value.compareTo(previousValue)),
+              Integer.signum(text.compareTo(previous)));
+        }
+        previous = text;
+        previousValue = value;
+
+        final long low = random.nextLong();
+        final String text128 = encoder.encode(id, low);
+        assertEquals(encoder.getWidth128(), text128.length());
+        assertArrayEquals(new long[]{id, low}, encoder.decode128(text128));
+        final BigInteger value128 =
+            value.multiply(TWO_64).add(new BigInteger(Long.toUnsignedString(low)));
+        assertEquals(value128, toBigInteger(text128, radix));
+        assertEquals(value, toBigInteger(text, radix));
+      }
+    }
+  }
+
+  private static BigInteger toBigInteger(String text, int radix) {
+    final String alphabet = "0123456789ABCDEFGHJKMNPQRSTVWXYZ";
+    final String base62 = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
+    BigInteger value = BigInteger.ZERO;
+    for (char c : text.toCharArray()) {
+      final int digit = radix == 32 ? alphabet.indexOf(c) : base62.indexOf(c);
+      value = value.multiply(BigInteger.valueOf(radix)).add(BigInteger.valueOf(digit));
+    }
+    return value;
+  }
+
+  @Test
+  public void testDecodeInvalid() {
+    assertThrows(IllegalArgumentException.class, () -> IdEncoder.BASE32.decode("G000000000000"));
+    assertThrows(IllegalArgumentException.class, () -> IdEncoder.BASE62.decode("zzzzzzzzzzz"));
+    assertThrows(IllegalArgumentException.class, () -> IdEncoder.BASE62.decode("0000000000!"));
+  }
+
+  @Test
+  public void testNextCompactId() {
+    final String first = IdGenerator.nextCompactId();
+    final String second = IdGenerator.nextCompactId();
+    assertEquals(13, first.length());
+    assertTrue(second.compareTo(first) > 0);
+  }
+}
@@ -1,11 +1,24 @@
 package cn.maiaimei.commons.lang.utils;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import cn.maiaimei.commons.lang.constants.DateTimeConstants;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Test;
 
@@ -37,4 +50,79 @@ public class IdGeneratorTest {
     log.info("{}", idWithCapacity);
     assertTrue(idWithCapacity.startsWith(formatter.format(LocalDateTime.now())));
   }
+
+  @Test
+  public void testSequenceBlock() {
+    IdGenerator.setSequenceBlockSize(64);
+    try {
+      final long leases = IdGenerator.getSequenceLeaseCount();
+      final Set<String> ids = ConcurrentHashMap.newKeySet();
+      IntStream.range(0, 10_000).parallel().forEach(i -> ids.add(IdGenerator.nextIdString(6)));
+      assertEquals(10_000, ids.size());
+      assertTrue(IdGenerator.getSequenceLeaseCount() - leases < 10_000);
+    } finally {
+      IdGenerator.setSequenceBlockSize(1);
+    }
+  }
+
+  @Test
+  public void testSequenceBlockPerThread() throws Exception {
+    final int threads = 4;
+    final int count = 1000;
+    IdGenerator.setSequenceBlockSize(16);
+    final ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      final List<Future<List<Long>>> futures = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        futures.add(executor.submit(() -> IntStream.range(0, count)
+            .mapToObj(i -> IdGenerator.nextIdString(6))
+            .map(id -> Long.parseLong(id.substring(DateTimeConstants.YYYYMMDDHHMMSSSSS.length())))
+            .collect(Collectors.toList())));
+      }
+      final Set<Long> serialNumbers = new HashSet<>();
+      for (Future<List<Long>> future : futures) {
+        final List<Long> perThread = future.get();
+        for (int i = 1; i < perThread.size(); i++) {
+          assertTrue(perThread.get(i) > perThread.get(i - 1));
+        }
+        serialNumbers.addAll(perThread);
+      }
+      assertEquals(threads * count, serialNumbers.size());
+    } finally {
+      executor.shutdown();
+      IdGenerator.setSequenceBlockSize(1);
+    }
+    final long leases = IdGenerator.getSequenceLeaseCount();
+    IntStream.range(0, 100).forEach(i -> IdGenerator.nextIdString());
+    assertEquals(leases, IdGenerator.getSequenceLeaseCount());
+  }
+
+  @Test
+  public void testDefaultSnowflakeIdGenerator() {
+    assertEquals(0, IdGenerator.defaultSnowflakeIdGenerator(null).getWorkerId());
+    assertEquals(3, IdGenerator.defaultSnowflakeIdGenerator("3").getWorkerId());
+    assertThrows(IllegalStateException.class,
+        () -> IdGenerator.defaultSnowflakeIdGenerator("node-3"));
+    assertThrows(IllegalStateException.class,
+        () -> IdGenerator.defaultSnowflakeIdGenerator("4096"));
+  }
+
+  @Test
+  public void testReserve() {
+    final SnowflakeIdGenerator.IdRange range = IdGenerator.reserve(100_000);
+    assertEquals(100_000, range.size());
+    final long[] ids = range.toArray();
+    for (int i = 1; i < ids.length; i++) {
+      assertTrue(ids[i] > ids[i - 1]);
+    }
+    assertEquals(range.getFirst(), ids[0]);
+    assertEquals(range.getLast(), ids[ids.length - 1]);
+    assertEquals(ids[500], range.get(500));
+    assertEquals(100_000, range.stream().distinct().count());
+    final PrimitiveIterator.OfLong iterator = range.iterator();
+    for (long id : ids) {
+      assertEquals(id, iterator.nextLong());
+    }
+    assertTrue(IdGenerator.nextLongId() > range.getLast());
+  }
 }
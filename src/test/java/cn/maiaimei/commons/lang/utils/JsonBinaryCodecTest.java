@@ -0,0 +1,69 @@
+package cn.maiaimei.commons.lang.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import cn.maiaimei.commons.lang.utils.JsonUtilsTest.Item;
+import com.fasterxml.jackson.core.type.TypeReference;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+public class JsonBinaryCodecTest {
+
+  private static final TypeReference<List<Item>> ITEMS_TYPE = new TypeReference<List<Item>>() {
+  };
+
+  private static List<Item> items(int count) {
+    return IntStream.range(0, count).mapToObj(i -> new Item("item-" + (i % 20), i))
+        .collect(Collectors.toList());
+  }
+
+  @Test
+  public void testRoundTrip() {
+    for (BinaryJsonFormat format : BinaryJsonFormat.values()) {
+      final JsonBinaryCodec codec = JsonUtils.binary(format);
+      assertSame(codec, JsonProfile.PRECISE.binary(format));
+      final byte[] bytes = codec.toBytes(new Item("a", null));
+      assertEquals(new Item("a", null), codec.toObject(bytes, Item.class));
+      assertEquals(new Item("a", null), JsonUtils.toObject(bytes, Item.class));
+      assertEquals(new Item("a", null), JsonUtils.toObject(ByteBuffer.wrap(bytes), Item.class));
+      final ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length).put(bytes);
+      direct.flip();
+      assertEquals(new Item("a", null), JsonUtils.toObject(direct, Item.class));
+      assertEquals(bytes.length, direct.position());
+      assertEquals(items(3), JsonUtils.toObject(JsonUtils.toBytes(items(3), format), ITEMS_TYPE));
+      final ByteArrayOutputStream out = new ByteArrayOutputStream();
+      codec.writeTo(items(3), out);
+      assertEquals(items(3), codec.toObject(new ByteArrayInputStream(out.toByteArray()),
+          ITEMS_TYPE));
+      assertFalse(codec.toObject(bytes, Map.class).containsKey("count"));
+    }
+  }
+
+  @Test
+  public void testProfileConfiguration() {
+    final byte[] bytes = JsonUtils.toBytes(new Item("a", 1), BinaryJsonFormat.CBOR);
+    assertEquals(BigInteger.ONE, JsonProfile.PRECISE.toObject(bytes, Map.class).get("count"));
+    assertEquals(1, JsonProfile.FAST_NUMERIC.toObject(bytes, Map.class).get("count"));
+  }
+
+  @Test
+  public void testSize() {
+    final List<Item> items = items(1000);
+    final byte[] text = JsonUtils.toJsonBytes(items);
+    for (BinaryJsonFormat format : BinaryJsonFormat.values()) {
+      final byte[] bytes = JsonUtils.toBytes(items, format);
+      assertTrue(bytes.length < text.length, format.name());
+      assertEquals(items, JsonUtils.toObject(bytes, ITEMS_TYPE));
+    }
+  }
+}
@@ -0,0 +1,43 @@
+package cn.maiaimei.commons.lang.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.core.util.BufferRecycler;
+import java.util.Collections;
+import org.junit.jupiter.api.Test;
+
+public class JsonBufferPoolTest {
+
+  @Test
+  public void testBounded() {
+    final JsonBufferPool pool = new JsonBufferPool(1);
+    assertEquals(1.0d, pool.getHitRate());
+    final BufferRecycler first = pool.acquireAndLinkPooled();
+    final BufferRecycler second = pool.acquireAndLinkPooled();
+    first.releaseToPool();
+    second.releaseToPool();
+    assertEquals(1, pool.pooledCount());
+    assertEquals(1, pool.getDropCount());
+    assertSame(first, pool.acquireAndLinkPooled());
+    assertEquals(1, pool.getHitCount());
+    assertEquals(2, pool.getMissCount());
+    assertEquals(1.0d / 3, pool.getHitRate(), 1e-9);
+    pool.resetStats();
+    assertEquals(0, pool.getMissCount());
+  }
+
+  @Test
+  public void testSharedPool() {
+    final JsonBufferPool pool = JsonUtils.getBufferPool();
+    JsonUtils.toJson(Collections.singletonMap("a", 1));
+    final long hits = pool.getHitCount();
+    for (int i = 0; i < 100; i++) {
+      JsonUtils.toJson(Collections.singletonMap("a", i));
+      JsonUtils.toObject("{\"a\":1}", Object.class);
+    }
+    assertTrue(pool.getHitCount() - hits >= 200);
+    assertTrue(pool.pooledCount() <= pool.getCapacity());
+  }
+}
@@ -0,0 +1,90 @@
+package cn.maiaimei.commons.lang.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import cn.maiaimei.commons.lang.exception.JsonOperationException;
+import cn.maiaimei.commons.lang.utils.JsonUtilsTest.Item;
+import com.fasterxml.jackson.core.type.TypeReference;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+public class JsonFeedDecoderTest {
+
+  @Test
+  public void testFeedByteByByte() {
+    final List<Item> items = new ArrayList<>();
+    final JsonFeedDecoder<Item> decoder = JsonUtils.newFeedDecoder(Item.class, items::add);
+    final byte[] bytes = "{\"name\":\"é中\",\"count\":1}\n{\"name\":\"b\"}{\"name\":\"c\"}"
+        .getBytes(StandardCharsets.UTF_8);
+    final byte[] chunk = new byte[1];
+    for (byte b : bytes) {
+      chunk[0] = b;
+      decoder.feed(chunk);
+    }
+    assertEquals(Arrays.asList(new Item("é中", 1), new Item("b", null), new Item("c", null)),
+        items);
+    assertFalse(decoder.hasPartialValue());
+    assertEquals(0, decoder.endOfInput());
+  }
+
+  @Test
+  public void testFeedByteBuffer() {
+    final List<Map<String, Object>> values = new ArrayList<>();
+    final JsonFeedDecoder<Map<String, Object>> decoder = JsonUtils.newFeedDecoder(
+        new TypeReference<Map<String, Object>>() {
+        }, values::add);
+    final ByteBuffer direct = ByteBuffer.allocateDirect(64);
+    direct.put("{\"a\":1.25,\"b\":[1,".getBytes(StandardCharsets.UTF_8)).flip();
+    assertEquals(0, decoder.feed(direct));
+    assertFalse(direct.hasRemaining());
+    assertTrue(decoder.hasPartialValue());
+    direct.clear();
+    direct.put("2]} {\"a\":2}".getBytes(StandardCharsets.UTF_8)).flip();
+    assertEquals(2, decoder.feed(direct));
+    assertEquals(new BigDecimal("1.25"), values.get(0).get("a"));
+    assertEquals(2, ((List<?>) values.get(0).get("b")).size());
+  }
+
+  @Test
+  public void testRootScalars() {
+    final List<Object> values = new ArrayList<>();
+    final JsonFeedDecoder<Object> decoder = JsonUtils.newFeedDecoder(Object.class, values::add);
+    decoder.feed("1 \"x\" tr".getBytes(StandardCharsets.UTF_8));
+    decoder.feed("ue 12".getBytes(StandardCharsets.UTF_8));
+    assertEquals(3, values.size());
+    assertEquals(1, decoder.endOfInput());
+    assertEquals("12", values.get(3).toString());
+  }
+
+  @Test
+  public void testInvalid() {
+    final JsonFeedDecoder<Object> incomplete = JsonUtils.newFeedDecoder(Object.class, v -> {
+    });
+    incomplete.feed("{\"a\":".getBytes(StandardCharsets.UTF_8));
+    assertThrows(JsonOperationException.class, incomplete::endOfInput);
+
+    final JsonFeedDecoder<Object> tooLarge = JsonUtils.newFeedDecoder(Object.class, v -> {
+    });
+    tooLarge.setMaxValueBytes(16);
+    tooLarge.feed("{\"a\":1}".getBytes(StandardCharsets.UTF_8));
+    assertThrows(JsonOperationException.class,
+        () -> tooLarge.feed("{\"a\":\"0123456789abcdef\"}".getBytes(StandardCharsets.UTF_8)));
+    assertThrows(IllegalStateException.class, () -> tooLarge.feed(new byte[1]));
+
+    final JsonFeedDecoder<Object> failing = JsonUtils.newFeedDecoder(Object.class, v -> {
+      throw new IllegalArgumentException("rejected");
+    });
+    assertThrows(IllegalArgumentException.class,
+        () -> failing.feed("1 2 3".getBytes(StandardCharsets.UTF_8)));
+    assertThrows(IllegalStateException.class, () -> failing.feed(new byte[1]));
+  }
+}
@@ -0,0 +1,63 @@
+package cn.maiaimei.commons.lang.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+public class JsonPathExtractorTest {
+
+  private static final String JSON = "{\"id\":7,\"skip\":{\"a\":[1,{\"b\":2}]},"
+      + "\"order\":{\"items\":[{\"sku\":\"x\"},{\"sku\":\"y\",\"tags\":[\"t\"]}],\"note\":null},"
+      + "\"name\":\"n\"}";
+
+  @Test
+  public void testExtract() {
+    final Map<String, Object> values = JsonUtils.extract(JSON, "$.id", "order.items[1].sku",
+        "order.note", "order.items[1].tags", "missing", "order.items[5].sku");
+    assertEquals(BigInteger.valueOf(7), values.get("$.id"));
+    assertEquals("y", values.get("order.items[1].sku"));
+    assertTrue(values.containsKey("order.note"));
+    assertNull(values.get("order.note"));
+    assertEquals(Collections.singletonList("t"), values.get("order.items[1].tags"));
+    assertFalse(values.containsKey("missing"));
+    assertFalse(values.containsKey("order.items[5].sku"));
+  }
+
+  @Test
+  public void testNestedPaths() {
+    final JsonPathExtractor extractor =
+        JsonPathExtractor.compile("order.items", "order.items[0].sku", "$");
+    final Map<String, Object> values = extractor.extract(JSON.getBytes(StandardCharsets.UTF_8));
+    assertEquals(2, ((List<?>) values.get("order.items")).size());
+    assertEquals("x", values.get("order.items[0].sku"));
+    assertEquals("n", ((Map<?, ?>) values.get("$")).get("name"));
+    assertEquals(Arrays.asList("order.items", "order.items[0].sku", "$"), extractor.getPaths());
+  }
+
+  @Test
+  public void testStopsWhenFound() {
+    final String json = "{\"id\":1,\"rest\":[" + String.join(",",
+        Collections.nCopies(1000, "{\"x\":1}")) + "] this is not JSON";
+    final ByteArrayInputStream in =
+        new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    assertEquals(BigInteger.ONE, JsonPathExtractor.compile("id").extract(in).get("id"));
+  }
+
+  @Test
+  public void testInvalidPath() {
+    assertThrows(IllegalArgumentException.class, () -> JsonPathExtractor.compile("a..b"));
+    assertThrows(IllegalArgumentException.class, () -> JsonPathExtractor.compile("a[x]"));
+    assertThrows(IllegalArgumentException.class, () -> JsonPathExtractor.compile("a."));
+  }
+}
@@ -0,0 +1,74 @@
+package cn.maiaimei.commons.lang.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import cn.maiaimei.commons.lang.exception.JsonOperationException;
+import cn.maiaimei.commons.lang.utils.JsonUtilsTest.Item;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.StreamReadFeature;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+public class JsonProfileTest {
+
+  private static final String JSON = "{\"i\":1,\"l\":12345678901,\"d\":1.5}";
+
+  @Test
+  public void testPrecise() {
+    final Map<?, ?> map = JsonProfile.PRECISE.toObject(JSON, Map.class);
+    assertEquals(BigInteger.ONE, map.get("i"));
+    assertEquals(new BigDecimal("1.5"), map.get("d"));
+    assertSame(JsonProfile.PRECISE, JsonUtils.getProfile());
+  }
+
+  @Test
+  public void testFastNumeric() {
+    final Map<?, ?> map = JsonProfile.FAST_NUMERIC.toObject(JSON, Map.class);
+    assertEquals(1, map.get("i"));
+    assertEquals(12345678901L, map.get("l"));
+    assertEquals(1.5d, map.get("d"));
+    assertEquals("{\"d\":0.1}", JsonProfile.FAST_NUMERIC.toJson(JsonProfile.FAST_NUMERIC
+        .toObject("{\"d\":0.1}", Map.class)));
+    final JsonFactory factory = JsonProfile.FAST_NUMERIC.readerFor(Map.class).getFactory();
+    assertTrue(factory.isEnabled(StreamReadFeature.USE_FAST_DOUBLE_PARSER));
+    assertTrue(factory.isEnabled(StreamWriteFeature.USE_FAST_DOUBLE_WRITER));
+    assertFalse(JsonProfile.PRECISE.readerFor(Map.class).getFactory()
+        .isEnabled(StreamReadFeature.USE_FAST_DOUBLE_PARSER));
+  }
+
+  @Test
+  public void testStrict() {
+    assertEquals(new Item("a", 1), JsonProfile.STRICT.toObject("{\"name\":\"a\",\"count\":1}",
+        Item.class));
+    assertThrows(JsonOperationException.class,
+        () -> JsonProfile.STRICT.toObject("{\"name\":\"a\",\"x\":1}", Item.class));
+    assertThrows(JsonOperationException.class,
+        () -> JsonProfile.STRICT.toObject("{\"name\":\"a\",\"name\":\"b\"}", Item.class));
+    assertThrows(JsonOperationException.class,
+        () -> JsonProfile.STRICT.toObject("{\"name\":\"a\"} {}", Item.class));
+  }
+
+  @Test
+  public void testThreadProfile() {
+    final Map<?, ?> map = JsonUtils.withProfile(JsonProfile.FAST_NUMERIC,
+        () -> JsonUtils.toObject(JSON, Map.class));
+    assertEquals(1, map.get("i"));
+    assertSame(JsonProfile.PRECISE, JsonUtils.getProfile());
+    JsonUtils.setThreadProfile(JsonProfile.STRICT);
+    try {
+      assertSame(JsonProfile.STRICT.readerFor(Item.class), JsonUtils.readerFor(Item.class));
+      assertNotSame(JsonProfile.PRECISE.readerFor(Item.class), JsonUtils.readerFor(Item.class));
+    } finally {
+      JsonUtils.setThreadProfile(null);
+    }
+    assertSame(JsonProfile.PRECISE, JsonUtils.getProfile());
+  }
+}
@@ -0,0 +1,174 @@
+package cn.maiaimei.commons.lang.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import cn.maiaimei.commons.lang.exception.JsonOperationException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigInteger;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class JsonUtilsTest {
+
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class Item {
+
+    private String name;
+    private Integer count;
+  }
+
+  @Test
+  public void testToJson() {
+    assertEquals("{\"name\":\"a\"}", JsonUtils.toJson(new Item("a", null)));
+    assertEquals("null", JsonUtils.toJson(null));
+  }
+
+  @Test
+  public void testToObject() {
+    assertEquals(new Item("a", 1), JsonUtils.toObject("{\"name\":\"a\",\"count\":1,\"x\":2}",
+        Item.class));
+    final List<Item> items = JsonUtils.toObject("[{\"name\":\"a\"},{\"name\":\"b\"}]",
+        new TypeReference<List<Item>>() {
+        });
+    assertEquals(2, items.size());
+    assertEquals("b", items.get(1).getName());
+    final Map<?, ?> map = JsonUtils.toObject("{\"n\":1}", Map.class);
+    assertEquals(BigInteger.ONE, map.get("n"));
+  }
+
+  @Test
+  public void testReaderFor() {
+    assertSame(JsonUtils.readerFor(Item.class), JsonUtils.readerFor(Item.class));
+    assertSame(JsonUtils.readerFor(new TypeReference<List<Item>>() {
+    }), JsonUtils.readerFor(new TypeReference<List<Item>>() {
+    }));
+    assertSame(JsonUtils.writerFor(Item.class), JsonUtils.writerFor(Item.class));
+  }
+
+  @Test
+  public void testBytes() {
+    final byte[] bytes = JsonUtils.toJsonBytes(new Item("é", 1));
+    assertEquals("{\"name\":\"é\",\"count\":1}", new String(bytes, StandardCharsets.UTF_8));
+    assertEquals(new Item("é", 1), JsonUtils.toObject(bytes, Item.class));
+    assertEquals(new Item("é", 1), JsonUtils.toObject(new ByteArrayInputStream(bytes), Item.class));
+    final List<Item> items = JsonUtils.toObject("[{\"name\":\"a\"}]".getBytes(
+        StandardCharsets.UTF_8), new TypeReference<List<Item>>() {
+        });
+    assertEquals("a", items.get(0).getName());
+  }
+
+  @Test
+  public void testWriteTo() {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    JsonUtils.writeTo(new Item("a", 1), out);
+    JsonUtils.writeTo(new Item("b", 2), out);
+    assertEquals("{\"name\":\"a\",\"count\":1}{\"name\":\"b\",\"count\":2}",
+        new String(out.toByteArray(), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void testByteBuffer() {
+    final ByteBuffer direct = ByteBuffer.allocateDirect(64);
+    JsonUtils.writeTo(new Item("a", 1), direct);
+    direct.flip();
+    assertEquals(new Item("a", 1), JsonUtils.toObject(direct, Item.class));
+    assertFalse(direct.hasRemaining());
+
+    final ByteBuffer heap = ByteBuffer.allocate(64);
+    heap.put((byte) ' ');
+    JsonUtils.writeTo(new Item("b", 2), heap);
+    heap.flip();
+    heap.get();
+    assertEquals(new Item("b", 2), JsonUtils.toObject(heap.slice(), Item.class));
+    assertEquals(new Item("b", 2), JsonUtils.toObject(heap, Item.class));
+    assertFalse(heap.hasRemaining());
+
+    assertThrows(BufferOverflowException.class,
+        () -> JsonUtils.writeTo(new Item("a", 1), ByteBuffer.allocate(4)));
+  }
+
+  @Test
+  public void testReadValues() {
+    final String ndjson = "{\"name\":\"a\"}\n{\"name\":\"b\"}\n\n{\"name\":\"c\"}\n";
+    try (JsonValueIterator<Item> iterator = JsonUtils.readValues(
+        new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), Item.class)) {
+      assertEquals(Arrays.asList("a", "b", "c"),
+          iterator.stream().map(Item::getName).collect(Collectors.toList()));
+      assertFalse(iterator.hasNext());
+    }
+    final String array = "[{\"name\":\"a\",\"count\":1},{\"name\":\"b\"}]";
+    try (JsonValueIterator<Map<String, Object>> iterator = JsonUtils.readValues(
+        new ByteArrayInputStream(array.getBytes(StandardCharsets.UTF_8)),
+        new TypeReference<Map<String, Object>>() {
+        })) {
+      assertEquals(BigInteger.ONE, iterator.next().get("count"));
+      assertEquals("b", iterator.next().get("name"));
+      assertFalse(iterator.hasNext());
+      assertThrows(NoSuchElementException.class, iterator::next);
+    }
+    try (JsonValueIterator<Integer> iterator = JsonUtils.readValues(
+        new ByteArrayInputStream("[1,2]\n[3]\n".getBytes(StandardCharsets.UTF_8)),
+        Integer.class)) {
+      assertEquals(1, iterator.next());
+      assertEquals(2, iterator.next());
+      assertThrows(JsonOperationException.class, iterator::hasNext);
+      assertFalse(iterator.hasNext());
+    }
+    final AtomicBoolean closed = new AtomicBoolean();
+    final ByteArrayInputStream malformed = new ByteArrayInputStream(
+        "]".getBytes(StandardCharsets.UTF_8)) {
+      @Override
+      public void close() {
+        closed.set(true);
+      }
+    };
+    assertThrows(JsonOperationException.class, () -> JsonUtils.readValues(malformed, Item.class));
+    assertTrue(closed.get());
+  }
+
+  @Test
+  public void testWriteValues(@TempDir Path dir) {
+    final Path ndjson = dir.resolve("items.ndjson");
+    final Path array = dir.resolve("items.json");
+    final List<Item> items = Arrays.asList(new Item("a", 1), new Item("b", 2), new Item("c", 3));
+    try (JsonValueWriter writer = JsonUtils.writeValues(ndjson, false)) {
+      writer.writeAll(items);
+    }
+    try (JsonValueWriter writer = JsonUtils.writeValues(array.toFile(), true)) {
+      writer.writeAll(items.stream());
+    }
+    assertEquals("{\"name\":\"a\",\"count\":1}\n{\"name\":\"b\",\"count\":2}\n"
+        + "{\"name\":\"c\",\"count\":3}", FileUtils.readFileToString(ndjson.toFile()));
+    assertEquals(items, JsonUtils.toObject(FileUtils.readFileToString(array.toFile()),
+        new TypeReference<List<Item>>() {
+        }));
+    try (Stream<Item> stream = JsonUtils.readValues(ndjson, Item.class).stream()) {
+      assertEquals(items, stream.collect(Collectors.toList()));
+    }
+    try (Stream<Item> stream = JsonUtils.readValues(array.toFile(), Item.class).stream()) {
+      assertEquals(6, stream.mapToInt(Item::getCount).sum());
+    }
+  }
+}
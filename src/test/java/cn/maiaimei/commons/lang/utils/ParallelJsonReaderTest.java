@@ -0,0 +1,180 @@
+package cn.maiaimei.commons.lang.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import cn.maiaimei.commons.lang.exception.JsonOperationException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ParallelJsonReaderTest {
+
+  private static final int COUNT = 5000;
+
+  private static final TypeReference<Map<String, Object>> MAP_TYPE =
+      new TypeReference<Map<String, Object>>() {
+      };
+
+  private static final List<Integer> EXPECTED =
+      IntStream.range(0, COUNT).boxed().collect(Collectors.toList());
+
+  private static byte[] ndjson() {
+    return IntStream.range(0, COUNT)
+        .mapToObj(i -> "{\"id\":" + i + ",\"name\":\"" + (i % 7 == 0 ? "" : "n" + i) + "\"}\n")
+        .collect(Collectors.joining())
+        .getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static List<Integer> ids(Stream<Map<String, Object>> stream) {
+    try (Stream<Map<String, Object>> s = stream) {
+      return s.map(value -> ((Number) value.get("id")).intValue()).collect(Collectors.toList());
+    }
+  }
+
+  @Test
+  public void testOrdered(@TempDir Path dir) throws IOException {
+    final Path file = Files.write(dir.resolve("values.ndjson"), ndjson());
+    final ParallelJsonReader reader = ParallelJsonReader.builder().chunkSize(1000).build();
+    assertEquals(EXPECTED, ids(reader.readValues(file, MAP_TYPE)));
+    assertEquals(EXPECTED, ids(JsonUtils.readValuesParallel(file, MAP_TYPE)));
+  }
+
+  @Test
+  public void testUnordered(@TempDir Path dir) throws IOException {
+    final Path file = Files.write(dir.resolve("values.ndjson"), ndjson());
+    final ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      final ParallelJsonReader reader = ParallelJsonReader.builder().executor(executor)
+          .chunkSize(512).ordered(false).build();
+      final List<Integer> ids = ids(reader.readValues(file, MAP_TYPE));
+      ids.sort(null);
+      assertEquals(EXPECTED, ids);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testByteBuffer() {
+    final byte[] bytes = ndjson();
+    final ParallelJsonReader reader = ParallelJsonReader.builder().chunkSize(777).build();
+    assertEquals(EXPECTED, ids(reader.readValues(ByteBuffer.wrap(bytes), MAP_TYPE)));
+    final ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+    direct.put(bytes).flip();
+    assertEquals(EXPECTED, ids(reader.readValues(direct, MAP_TYPE)));
+    assertEquals(0, direct.position());
+  }
+
+  @Test
+  public void testBackpressure() {
+    final AtomicInteger submitted = new AtomicInteger();
+    final ParallelJsonReader reader = ParallelJsonReader.builder()
+        .executor(command -> {
+          submitted.incrementAndGet();
+          command.run();
+        })
+        .chunkSize(100).maxChunksInFlight(3).build();
+    try (Stream<Map<String, Object>> stream = reader.readValues(ByteBuffer.wrap(ndjson()),
+        MAP_TYPE)) {
+      final Iterator<Map<String, Object>> iterator = stream.iterator();
+      iterator.next();
+      assertEquals(3, submitted.get());
+      assertTrue(iterator.hasNext());
+    }
+  }
+
+  @Test
+  public void testCloseWaitsForRunningChunks(@TempDir Path dir) throws Exception {
+    final Path file = Files.write(dir.resolve("values.ndjson"), ndjson());
+    final ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      for (boolean ordered : new boolean[]{true, false}) {
+        // every chunk but the first is held until the gate opens
+        final CountDownLatch gate = new CountDownLatch(1);
+        final AtomicInteger submitted = new AtomicInteger();
+        final ParallelJsonReader reader = ParallelJsonReader.builder()
+            .executor(command -> {
+              final boolean first = submitted.getAndIncrement() == 0;
+              executor.execute(() -> {
+                try {
+                  if (!first) {
+                    gate.await();
+                  }
+                } catch (InterruptedException e) {
+                  Thread.currentThread().interrupt();
+                }
+                command.run();
+              });
+            })
+            .chunkSize(64).maxChunksInFlight(3).ordered(ordered).build();
+        final Stream<Map<String, Object>> stream = reader.readValues(file, MAP_TYPE);
+        stream.iterator().next();
+        final Future<?> close = executor.submit(stream::close);
+        assertThrows(TimeoutException.class, () -> close.get(200, TimeUnit.MILLISECONDS));
+        gate.countDown();
+        close.get(10, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testRejectedChunk() {
+    final ExecutorService shutDown = Executors.newSingleThreadExecutor();
+    shutDown.shutdown();
+    final AtomicInteger accepted = new AtomicInteger();
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      for (Executor rejecting : new Executor[]{shutDown, command -> {
+        // a bounded executor that fills up after two chunks
+        if (accepted.incrementAndGet() > 2) {
+          throw new RejectedExecutionException("full");
+        }
+        executor.execute(command);
+      }}) {
+        final ParallelJsonReader reader = ParallelJsonReader.builder().executor(rejecting)
+            .chunkSize(100).maxChunksInFlight(4).build();
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> assertThrows(
+            RejectedExecutionException.class,
+            () -> ids(reader.readValues(ByteBuffer.wrap(ndjson()), MAP_TYPE))));
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testInvalid() {
+    final ParallelJsonReader reader = ParallelJsonReader.builder().chunkSize(4).build();
+    final byte[] bytes = "{\"id\":1}\n{\"id\":\n{\"id\":3}\n".getBytes(StandardCharsets.UTF_8);
+    assertThrows(JsonOperationException.class,
+        () -> ids(reader.readValues(ByteBuffer.wrap(bytes), MAP_TYPE)));
+    assertThrows(IllegalArgumentException.class,
+        () -> ParallelJsonReader.builder().chunkSize(0).build());
+  }
+}
@@ -0,0 +1,113 @@
+package cn.maiaimei.commons.lang.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ParallelLineProcessorTest {
+
+  private static final int COUNT = 20_000;
+
+  private static final List<String> EXPECTED = IntStream.range(0, COUNT)
+      .mapToObj(i -> i % 1000 == 0 ? repeat('x', 3000) : i + ",名" + i % 10)
+      .collect(Collectors.toList());
+
+  private static File write(Path dir) throws IOException {
+    return Files.write(dir.resolve("data.csv"),
+        String.join("\r\n", EXPECTED).getBytes(StandardCharsets.UTF_8)).toFile();
+  }
+
+  private static String repeat(char c, int count) {
+    final StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < count; i++) {
+      builder.append(c);
+    }
+    return builder.toString();
+  }
+
+  @Test
+  public void testCollect(@TempDir Path dir) throws IOException {
+    final File file = write(dir);
+    final ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      for (boolean mapped : new boolean[]{true, false}) {
+        final ParallelLineProcessor processor = ParallelLineProcessor.builder()
+            .pool(pool).chunkSize(2048).mapped(mapped).build();
+        assertEquals(EXPECTED, processor.collect(file,
+            Collectors.mapping(CharSequence::toString, Collectors.toList())));
+        assertEquals(new HashSet<>(EXPECTED), processor.collectUnordered(file,
+            Collectors.mapping(CharSequence::toString, Collectors.toSet())));
+        assertEquals(COUNT, (long) processor.collectUnordered(file, Collectors.counting()));
+        final ConcurrentMap<Character, Long> lastDigits = processor.collectUnordered(file,
+            Collectors.groupingByConcurrent(line -> line.charAt(line.length() - 1),
+                Collectors.counting()));
+        final Map<Character, Long> expected = EXPECTED.stream()
+            .collect(Collectors.groupingBy(line -> line.charAt(line.length() - 1),
+                Collectors.counting()));
+        assertEquals(expected, lastDigits);
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void testForEachLine(@TempDir Path dir) throws IOException {
+    final File file = write(dir);
+    final LongAdder lines = new LongAdder();
+    final LongAdder chars = new LongAdder();
+    ParallelLineProcessor.builder().chunkSize(4096).build().forEachLine(file, line -> {
+      lines.increment();
+      chars.add(line.length());
+    });
+    assertEquals(COUNT, lines.sum());
+    assertEquals(EXPECTED.stream().mapToLong(String::length).sum(), chars.sum());
+
+    final File empty = Files.createFile(dir.resolve("empty.csv")).toFile();
+    assertEquals(0, (long) ParallelLineProcessor.builder().build()
+        .collect(empty, Collectors.counting()));
+    assertThrows(IllegalArgumentException.class,
+        () -> ParallelLineProcessor.builder().charset(StandardCharsets.UTF_16).build());
+  }
+
+  @Test
+  public void testSplitBeforeLongLastLine(@TempDir Path dir) throws IOException {
+    // the upper half of the file is one line, the lower half must still be split
+    final List<String> expected = IntStream.range(0, 100)
+        .mapToObj(i -> "line" + i)
+        .collect(Collectors.toList());
+    expected.add(repeat('x', 10_000));
+    final File file = Files.write(dir.resolve("data.txt"),
+        String.join("\n", expected).getBytes(StandardCharsets.UTF_8)).toFile();
+    final AtomicInteger ranges = new AtomicInteger();
+    final List<String> lines = ParallelLineProcessor.builder().chunkSize(64).build()
+        .collect(file, Collector.of(() -> {
+          ranges.incrementAndGet();
+          return new ArrayList<String>();
+        }, (list, line) -> list.add(line.toString()), (left, right) -> {
+          left.addAll(right);
+          return left;
+        }));
+    assertEquals(expected, lines);
+    assertTrue(ranges.get() > 2);
+  }
+}
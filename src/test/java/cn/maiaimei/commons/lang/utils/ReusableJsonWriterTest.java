@@ -0,0 +1,70 @@
+package cn.maiaimei.commons.lang.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import cn.maiaimei.commons.lang.exception.JsonOperationException;
+import cn.maiaimei.commons.lang.utils.JsonUtilsTest.Item;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+public class ReusableJsonWriterTest {
+
+  public static class Broken {
+
+    public String getValue() {
+      throw new IllegalStateException("broken");
+    }
+  }
+
+  @Test
+  public void testReuse() {
+    try (ReusableJsonWriter writer = JsonUtils.newReusableWriter()) {
+      for (int i = 0; i < 3; i++) {
+        assertEquals("{\"name\":\"a\",\"count\":" + i + "}", writer.toJson(new Item("a", i)));
+        assertEquals("{\"name\":\"b\",\"count\":" + i + "}",
+            new String(writer.toJsonBytes(new Item("b", i)), StandardCharsets.UTF_8));
+      }
+      assertEquals("null", writer.toJson(null));
+      assertEquals("[1,2]", writer.toJson(new int[]{1, 2}));
+    }
+  }
+
+  @Test
+  public void testWriteToSink() {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    final StringWriter chars = new StringWriter();
+    try (ReusableJsonWriter writer = JsonUtils.newReusableWriter()) {
+      for (int i = 0; i < 3; i++) {
+        writer.writeTo(new Item("a", i), out);
+        writer.writeTo(new Item("b", i), chars);
+      }
+      // flushed after each value
+      assertEquals(3, JsonUtils.readValues(new ByteArrayInputStream(out.toByteArray()),
+          Item.class).stream().count());
+      assertThrows(JsonOperationException.class, () -> writer.writeTo(new Broken(), out));
+      out.reset();
+      writer.writeTo(new Item("c", null), out);
+      writer.writeTo(new Item("d", null), out);
+    }
+    assertEquals("{\"name\":\"c\"}{\"name\":\"d\"}",
+        new String(out.toByteArray(), StandardCharsets.UTF_8));
+    assertEquals("{\"name\":\"b\",\"count\":0}{\"name\":\"b\",\"count\":1}"
+        + "{\"name\":\"b\",\"count\":2}", chars.toString());
+  }
+
+  @Test
+  public void testRecoversFromFailure() {
+    final ReusableJsonWriter writer = JsonProfile.PRECISE.newReusableWriter();
+    assertEquals("{\"name\":\"a\"}", writer.toJson(new Item("a", null)));
+    assertThrows(JsonOperationException.class, () -> writer.toJson(new Broken()));
+    assertThrows(JsonOperationException.class, () -> writer.toJsonBytes(new Broken()));
+    assertEquals("{\"name\":\"c\"}", writer.toJson(new Item("c", null)));
+    assertEquals("{\"name\":\"c\"}",
+        new String(writer.toJsonBytes(new Item("c", null)), StandardCharsets.UTF_8));
+    writer.close();
+  }
+}
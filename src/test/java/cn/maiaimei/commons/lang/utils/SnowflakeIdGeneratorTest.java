@@ -0,0 +1,54 @@
+package cn.maiaimei.commons.lang.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+public class SnowflakeIdGeneratorTest {
+
+  @Test
+  public void testNextId() {
+    final SnowflakeIdGenerator generator = SnowflakeIdGenerator.of(7);
+    final long before = System.currentTimeMillis();
+    final long id = generator.nextId();
+    assertTrue(id > 0);
+    assertEquals(7, generator.getWorkerId(id));
+    assertTrue(generator.getTimestamp(id) >= before);
+    assertTrue(generator.nextId() > id);
+  }
+
+  @Test
+  public void testNextIdConcurrently() {
+    final SnowflakeIdGenerator generator = SnowflakeIdGenerator.of(1);
+    final Set<Long> ids = ConcurrentHashMap.newKeySet();
+    IntStream.range(0, 200_000).parallel().forEach(i -> ids.add(generator.nextId()));
+    assertEquals(200_000, ids.size());
+  }
+
+  @Test
+  public void testClockMovesBackwards() {
+    final AtomicLong clock = new AtomicLong(SnowflakeIdGenerator.DEFAULT_EPOCH + 1000);
+    final SnowflakeIdGenerator generator = SnowflakeIdGenerator.builder()
+        .workerId(3)
+        .sequenceBits(2)
+        .maxBackwardMillis(10)
+        .clock(clock::get)
+        .build();
+    final long first = generator.nextId();
+    clock.addAndGet(-5);
+    long last = first;
+    for (int i = 0; i < 3; i++) {
+      final long id = generator.nextId();
+      assertTrue(id > last);
+      last = id;
+    }
+    clock.addAndGet(-100);
+    assertThrows(IllegalStateException.class, generator::nextId);
+  }
+}
@@ -0,0 +1,71 @@
+package cn.maiaimei.commons.lang.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import cn.maiaimei.commons.lang.constants.DateTimeConstants;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class TimestampFormatterTest {
+
+  private static final String[] PATTERNS = {DateTimeConstants.YYYYMMDDHHMMSSSSS,
+      DateTimeConstants.YYYYMMDDHHMMSS, DateTimeConstants.YYYYMMDD, "yyyy-MM-dd HH:mm:ss"};
+
+  @Test
+  public void testFormat() {
+    final Random random = new Random(42);
+    for (ZoneId zone : new ZoneId[]{ZoneId.of("UTC"), ZoneId.of("Asia/Shanghai"),
+        ZoneId.of("Europe/Berlin"), ZoneId.of("America/St_Johns")}) {
+      for (String pattern : PATTERNS) {
+        final TimestampFormatter formatter = TimestampFormatter.ofPattern(pattern, zone);
+        final DateTimeFormatter expected = DateTimeFormatter.ofPattern(pattern);
+        long epochMillis = 1700000000000L;
+        for (int i = 0; i < 2000; i++) {
+          epochMillis += random.nextInt(6 * 60 * 60 * 1000);
+          final String value = expected.format(
+              LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), zone));
+          assertEquals(value, formatter.format(epochMillis));
+
+          final char[] chars = new char[value.length() + 2];
+          assertEquals(value.length() + 1, formatter.formatTo(epochMillis, chars, 1));
+          assertEquals(value, new String(chars, 1, value.length()));
+
+          final byte[] bytes = new byte[value.length()];
+          formatter.formatTo(epochMillis, bytes, 0);
+          assertEquals(value, new String(bytes, StandardCharsets.US_ASCII));
+
+          assertEquals("x" + value, formatter.formatTo(epochMillis, new StringBuilder("x"))
+              .toString());
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testFormatBeforeEpoch() {
+    final ZoneId zone = ZoneId.of("UTC");
+    final TimestampFormatter formatter =
+        TimestampFormatter.ofPattern(DateTimeConstants.YYYYMMDDHHMMSSSSS, zone);
+    assertEquals("19691231235959999", formatter.format(-1L));
+  }
+
+  @Test
+  public void testFormatYearsBeforeOne() {
+    final ZoneId zone = ZoneId.of("UTC");
+    for (String pattern : new String[]{DateTimeConstants.YYYYMMDD,
+        DateTimeConstants.YYYYMMDDHHMMSSSSS}) {
+      final TimestampFormatter formatter = TimestampFormatter.ofPattern(pattern, zone);
+      final DateTimeFormatter expected = DateTimeFormatter.ofPattern(pattern).withZone(zone);
+      for (int year : new int[]{1, 0, -1}) {
+        final Instant instant = LocalDateTime.of(year, 6, 1, 12, 30).toInstant(ZoneOffset.UTC);
+        assertEquals(expected.format(instant), formatter.format(instant.toEpochMilli()));
+      }
+    }
+  }
+}
@@ -1,6 +1,17 @@
 package cn.maiaimei.commons.lang.utils;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.common.cache.CacheStats;
 import com.google.common.collect.Maps;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -41,5 +52,125 @@ public class ValueExpressionUtilsTest {
     }
   }
 
-}
+  @Test
+  public void testCompile() {
+    String exp = "trade.${tradeId}.${unknown}.${serialNumber->%05d}-${serialNumber->%05d}"
+        + ".${serialNumber->%x}.${currentTimestamp->yyyyMMdd}.txt";
+    final CompiledExpression compiledExpression = ValueExpressionUtils.compile(exp);
+    assertEquals(exp, compiledExpression.getExpressionString());
+
+    AtomicInteger atomicInteger = new AtomicInteger(10);
+    Map<String, String> params = MapUtils.of("tradeId", "12345");
+    final String value = compiledExpression.render(params, atomicInteger);
+    log.info("{}", value);
+    assertTrue(value.startsWith("trade.12345.${unknown}.00010-00010.b."));
+    assertTrue(value.endsWith(".txt"));
+    assertEquals(12, atomicInteger.get());
+    assertEquals(compiledExpression.render(params, new AtomicInteger(10)).length(), value.length());
+  }
+
+  @Test
+  public void testCompileWithoutPlaceholder() {
+    assertEquals("", ValueExpressionUtils.compile("").render());
+    assertEquals("abc${", ValueExpressionUtils.compile("abc${").render());
+    assertEquals("${a${b}", ValueExpressionUtils.parse("${a${b}"));
+  }
+
+  @Test
+  public void testParseCache() {
+    String exp = "cache-${currentTimestamp->yyyyMMdd}-" + UUID.randomUUID();
+    final CacheStats before = ValueExpressionUtils.getCacheStats();
+    ValueExpressionUtils.parse(exp);
+    ValueExpressionUtils.parse(exp);
+    final CacheStats stats = ValueExpressionUtils.getCacheStats().minus(before);
+    assertEquals(1, stats.missCount());
+    assertEquals(1, stats.hitCount());
+  }
+
+  @Test
+  public void testParseUnterminatedPlaceholder() {
+    assertEquals("${aX}", ValueExpressionUtils.parse("${a${b}}", MapUtils.of("b", "X")));
+    assertEquals("${aX", ValueExpressionUtils.parse("${a${b}", MapUtils.of("b", "X")));
+    assertEquals("${a${b}", ValueExpressionUtils.parse("${a${b}", MapUtils.of("a", "X")));
+    assertEquals("${a-X-${", ValueExpressionUtils.parse("${a-${b}-${", MapUtils.of("b", "X")));
+  }
+
+  @Test
+  public void testRenderTo() {
+    final CompiledExpression compiledExpression =
+        ValueExpressionUtils.compile("文件-${name}-${serialNumber->%03d}.txt");
+    Map<String, String> params = MapUtils.of("name", "报表\uD83D\uDE00");
+
+    final StringBuilder builder = new StringBuilder("prefix:");
+    compiledExpression.renderTo(builder, params, new AtomicInteger(7));
+    assertEquals("prefix:文件-报表\uD83D\uDE00-007.txt", builder.toString());
 
+    final StringWriter writer = new StringWriter();
+    compiledExpression.renderTo(writer, params, new AtomicInteger(7));
+    assertEquals("文件-报表\uD83D\uDE00-007.txt", writer.toString());
+
+    final ByteBuffer buffer = ByteBuffer.allocate(64);
+    compiledExpression.renderTo(buffer, params, new AtomicInteger(7));
+    buffer.flip();
+    assertEquals("文件-报表\uD83D\uDE00-007.txt", StandardCharsets.UTF_8.decode(buffer).toString());
+  }
+
+  @Test
+  public void testRenderToBufferWithUnpairedSurrogate() {
+    Map<String, String> params = MapUtils.of("high", "a\uD83D", "low", "\uDE00b");
+    for (String exp : Arrays.asList("${high}-", "${high}\uDE00", "\uD83D${low}", "${high}${low}",
+        "${high}")) {
+      final CompiledExpression compiledExpression = ValueExpressionUtils.compile(exp);
+      final ByteBuffer buffer = ByteBuffer.allocate(64);
+      compiledExpression.renderTo(buffer, params, new AtomicInteger());
+      buffer.flip();
+      final byte[] bytes = new byte[buffer.remaining()];
+      buffer.get(bytes);
+      assertArrayEquals(compiledExpression.render(params).getBytes(StandardCharsets.UTF_8), bytes,
+          exp);
+    }
+  }
+
+  @Test
+  public void testRegisterResolver() {
+    ValueExpressionUtils.registerResolver(new PlaceholderResolver() {
+      @Override
+      public String getName() {
+        return "upper";
+      }
+
+      @Override
+      public Placeholder bind(String argument) {
+        return (appendable, context) ->
+            appendable.append(String.valueOf(context.getParam(argument)).toUpperCase());
+      }
+    });
+    Map<String, String> params = MapUtils.of("env", "prod");
+    try {
+      assertEquals("prod-PROD-${missing}",
+          ValueExpressionUtils.parse("${env}-${upper->env}-${missing}", params::get));
+    } finally {
+      assertTrue(ValueExpressionUtils.unregisterResolver("upper"));
+    }
+    assertFalse(ValueExpressionUtils.unregisterResolver("upper"));
+    assertEquals("prod-${upper->env}",
+        ValueExpressionUtils.parse("${env}-${upper->env}", params::get));
+  }
+
+  @Test
+  public void testRenderBatch() {
+    String exp = "batch.${name}.${currentTimestamp->yyyyMMddHHmmssSSS}.${serialNumber->%05d}";
+    List<Map<String, String>> params = Arrays.asList(
+        MapUtils.of("name", "a"), MapUtils.of("name", "b"), MapUtils.of("name", "c"));
+    AtomicInteger atomicInteger = new AtomicInteger(100);
+    final String[] values = ValueExpressionUtils.renderBatch(exp, params, atomicInteger);
+    assertEquals(3, values.length);
+    assertEquals(103, atomicInteger.get());
+    final String timestamp = values[0].split("\\.")[2];
+    for (int i = 0; i < values.length; i++) {
+      log.info("{}", values[i]);
+      assertEquals("batch." + params.get(i).get("name") + "." + timestamp + ".0010" + i, values[i]);
+    }
+  }
+
+}